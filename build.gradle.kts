@@ -4,6 +4,7 @@ plugins {
 	id("io.spring.dependency-management") version "1.1.7"
 	id("org.openapi.generator") version "7.5.0"
 	id("com.diffplug.spotless") version "8.0.0"
+	id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.example"
@@ -25,7 +26,10 @@ repositories {
 dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	implementation("com.github.ben-manes.caffeine:caffeine")
 	implementation("org.mapstruct:mapstruct:${mapstructVersion}")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	// OpenAPI/Swagger dependencies
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.8.13")
 	implementation("org.openapitools:jackson-databind-nullable:0.2.7")
@@ -42,6 +46,19 @@ sourceSets {
 			srcDir("${buildDir}/generate-resources/main/src/main/java")
 		}
 	}
+	// HTTP load generator, run against a separately started application
+	create("loadtest")
+}
+
+dependencies {
+	"loadtestImplementation"("org.hdrhistogram:HdrHistogram:2.2.2")
+}
+
+tasks.register<JavaExec>("loadTest") {
+	group = "verification"
+	description = "Sends load to a running ledger, configured with --args=\"--rate=5000 --skew=1.1\"."
+	classpath = sourceSets["loadtest"].runtimeClasspath
+	mainClass = "com.example.ledger.loadtest.LoadGenerator"
 }
 
 tasks.getByName("compileJava") {
@@ -71,6 +88,17 @@ openApiGenerate {
 	))
 }
 
+jmh {
+	jmhVersion = "1.37"
+	// machine-readable results, so runs can be compared across commits
+	resultFormat = "JSON"
+	resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+	// narrow a run with -PjmhIncludes=PostingBenchmark
+	providers.gradleProperty("jmhIncludes").orNull?.let { includes = listOf(it) }
+	// add profilers with -PjmhProfilers=gc, e.g. to see bytes allocated per operation
+	providers.gradleProperty("jmhProfilers").orNull?.let { profilers = it.split(",") }
+}
+
 spotless {
 	java {
 		googleJavaFormat()
@@ -0,0 +1,133 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.models.Transaction;
+import com.example.ledger.repository.MapBalanceRepository;
+import com.example.ledger.repository.PartitionedTransactionRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time until the ledger can serve postings again after a restart, with and without balance
+ * snapshots. The journal holds {@code transactions} records and the newest snapshot is {@code
+ * tail} records behind its end, as if the last snapshot interval saw that many postings.
+ *
+ * <p>Full replay grows with the ledger; snapshot recovery should stay flat for a fixed tail.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class RecoveryBenchmark {
+  private static final int ACCOUNTS = 100_000;
+  private static final int SEGMENT_SIZE = 256 << 20;
+
+  @Param({"1000000", "10000000"})
+  int transactions;
+
+  @Param({"100000"})
+  int tail;
+
+  private Path directory;
+
+  @Setup(Level.Trial)
+  public void writeLedger() throws IOException {
+    directory = Files.createTempDirectory("ledger-recovery");
+    UUID[] accounts = new UUID[ACCOUNTS];
+    for (int i = 0; i < ACCOUNTS; i++) {
+      accounts[i] = UUID.randomUUID();
+    }
+    int[] balances = new int[ACCOUNTS];
+    long now = System.currentTimeMillis() * 1_000;
+
+    try (TransactionJournal journal = openJournal();
+        BalanceCheckpointer checkpointer =
+            new BalanceCheckpointer(journal, openSnapshots(), Duration.ofDays(1))) {
+      List<Transaction> batch = new ArrayList<>(1_000);
+      for (int i = 0; i < transactions; i++) {
+        int account = i % ACCOUNTS;
+        balances[account] += 100;
+        batch.add(
+            new Transaction(
+                UUID.randomUUID(),
+                accounts[account],
+                100,
+                Transaction.TransactionType.DEPOSIT,
+                balances[account],
+                now));
+        if (batch.size() == 1_000) {
+          journal.appendAll(batch);
+          batch.clear();
+        }
+        if (i + 1 == transactions - tail) {
+          journal.appendAll(batch);
+          batch.clear();
+          checkpointer.checkpoint();
+        }
+      }
+      journal.appendAll(batch);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteLedger() throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Benchmark
+  public long fullReplay() throws IOException {
+    try (TransactionJournal journal = openJournal()) {
+      return JournalRecovery.recover(
+          journal,
+          new PartitionedTransactionRepository(new ConcurrentHashMap<>()),
+          new MapBalanceRepository(new ConcurrentHashMap<>()));
+    }
+  }
+
+  @Benchmark
+  public long snapshotAndTail() throws IOException {
+    try (TransactionJournal journal = openJournal()) {
+      return JournalRecovery.recover(
+              journal,
+              openSnapshots(),
+              new PartitionedTransactionRepository(new ConcurrentHashMap<>()),
+              new MapBalanceRepository(new ConcurrentHashMap<>()))
+          .replayed();
+    }
+  }
+
+  private TransactionJournal openJournal() throws IOException {
+    return TransactionJournal.open(
+        directory, SEGMENT_SIZE, FsyncPolicy.INTERVAL, Duration.ofSeconds(1));
+  }
+
+  private BalanceSnapshotStore openSnapshots() throws IOException {
+    return new BalanceSnapshotStore(directory.resolve("snapshots"), 2);
+  }
+}
@@ -0,0 +1,69 @@
+package com.example.ledger.mappers;
+
+import com.example.ledger.generated.model.BalanceResponse;
+import com.example.ledger.generated.model.PostingItem;
+import com.example.ledger.generated.model.TransactionResponse;
+import com.example.ledger.models.Balance;
+import com.example.ledger.models.Posting;
+import com.example.ledger.models.Transaction;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Cost of the generated {@link AccountMapper} conversions on the request path. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountMapperBenchmark {
+  private AccountMapper accountMapper;
+  private Transaction transaction;
+  private Balance balance;
+  private PostingItem postingItem;
+
+  @Setup
+  public void setUp() {
+    accountMapper = new AccountMapperImpl();
+    long now = System.currentTimeMillis() * 1_000;
+    transaction =
+        new Transaction(
+            UUID.randomUUID(),
+            UUID.randomUUID(),
+            100,
+            Transaction.TransactionType.DEPOSIT,
+            1_000,
+            now);
+    balance = new Balance(1_000, now);
+    postingItem =
+        new PostingItem()
+            .accountId(transaction.accountId())
+            .type(PostingItem.TypeEnum.DEPOSIT)
+            .amount(100L);
+  }
+
+  @Benchmark
+  public TransactionResponse toTransactionResponse() {
+    return accountMapper.toTransactionResponse(transaction);
+  }
+
+  @Benchmark
+  public BalanceResponse toBalanceResponse() {
+    return accountMapper.toBalanceResponse(balance);
+  }
+
+  @Benchmark
+  public Posting toPosting() {
+    return accountMapper.toPosting(postingItem);
+  }
+}
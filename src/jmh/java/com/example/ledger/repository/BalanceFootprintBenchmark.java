@@ -0,0 +1,97 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Balance;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Memory held by each balance store once {@code accounts} balances are loaded, and the garbage
+ * collection time spent loading them. Heap and direct memory are reported separately as auxiliary
+ * counters next to the load time, which includes the full collections that settle the heap
+ * around each load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx24g", "-XX:MaxDirectMemorySize=8g"})
+public class BalanceFootprintBenchmark {
+  @Param({"1000000", "10000000", "50000000"})
+  int accounts;
+
+  @Param({"map", "off-heap"})
+  String store;
+
+  private BalanceRepository repository;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Footprint {
+    public long heapBytes;
+    public long directBytes;
+    public long gcMillis;
+  }
+
+  @Setup(Level.Invocation)
+  public void clear() {
+    repository = null;
+    System.gc();
+  }
+
+  @Benchmark
+  public BalanceRepository load(Footprint footprint) {
+    long heapBefore = usedHeap();
+    long directBefore = usedDirect();
+    long gcBefore = gcMillis();
+
+    repository =
+        store.equals("map")
+            ? new MapBalanceRepository(new ConcurrentHashMap<>(accounts))
+            : new OffHeapBalanceRepository(accounts);
+    long now = System.currentTimeMillis() * 1_000;
+    for (int i = 0; i < accounts; i++) {
+      repository.saveBalance(new UUID(i, ~i), new Balance(i, now));
+    }
+
+    footprint.gcMillis = gcMillis() - gcBefore;
+    footprint.heapBytes = usedHeap() - heapBefore;
+    footprint.directBytes = usedDirect() - directBefore;
+    return repository;
+  }
+
+  private static long usedHeap() {
+    System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  private static long usedDirect() {
+    return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+        .filter(pool -> pool.getName().equals("direct"))
+        .mapToLong(BufferPoolMXBean::getMemoryUsed)
+        .sum();
+  }
+
+  private static long gcMillis() {
+    return ManagementFactory.getGarbageCollectorMXBeans().stream()
+        .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+        .sum();
+  }
+}
@@ -0,0 +1,91 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Transaction;
+import com.example.ledger.models.TransactionPage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of reading one account's history as it grows to {@code history} transactions: the full
+ * history, the first page, and a page of the most recent hour selected by time range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HistoryBenchmark {
+  private static final int PAGE_SIZE = 100;
+
+  @Param({"list", "partitioned", "columnar"})
+  String store;
+
+  @Param({"100", "10000", "1000000"})
+  int history;
+
+  private UUID accountId;
+  private TransactionRepository repository;
+  private long lastHour;
+
+  @Setup(Level.Trial)
+  public void load() {
+    repository =
+        switch (store) {
+          case "list" -> new ListTransactionRepository(new ArrayList<>());
+          case "partitioned" -> new PartitionedTransactionRepository(new ConcurrentHashMap<>());
+          default -> new ColumnarTransactionRepository(new ConcurrentHashMap<>());
+        };
+    accountId = UUID.randomUUID();
+    // one posting per second, ending now
+    long now = System.currentTimeMillis() * 1_000;
+    long start = now - history * 1_000_000L;
+    List<Transaction> transactions = new ArrayList<>(history);
+    for (int i = 0; i < history; i++) {
+      transactions.add(
+          new Transaction(
+              UUID.randomUUID(),
+              accountId,
+              1,
+              Transaction.TransactionType.DEPOSIT,
+              i + 1,
+              start + i * 1_000_000L));
+    }
+    repository.addTransactions(transactions);
+    lastHour = now - 3_600_000_000L;
+  }
+
+  @Benchmark
+  public long fullHistory() {
+    long sum = 0;
+    for (Transaction transaction : repository.getTransactions(accountId)) {
+      sum += transaction.amount();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public TransactionPage firstPage() {
+    return repository.getTransactions(accountId, 0, PAGE_SIZE, null, null);
+  }
+
+  @Benchmark
+  public TransactionPage lastHourPage() {
+    return repository.getTransactions(accountId, 0, PAGE_SIZE, lastHour, null);
+  }
+}
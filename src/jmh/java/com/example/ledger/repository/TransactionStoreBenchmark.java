@@ -0,0 +1,130 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Transaction;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Append throughput, history scan speed and retained heap of the transaction stores. The scan
+ * and footprint benchmarks work on {@code transactions} postings spread evenly over {@code
+ * accounts} accounts.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TransactionStoreBenchmark {
+  @Param({"list", "partitioned", "columnar"})
+  String store;
+
+  @Param({"1000"})
+  int accounts;
+
+  @Param({"1000000"})
+  int transactions;
+
+  private UUID[] accountIds;
+  private TransactionRepository loaded;
+  private TransactionRepository appendTarget;
+  private Transaction posting;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Footprint {
+    public long heapBytes;
+  }
+
+  @Setup(Level.Trial)
+  public void load() {
+    accountIds = new UUID[accounts];
+    for (int i = 0; i < accounts; i++) {
+      accountIds[i] = UUID.randomUUID();
+    }
+    loaded = fill(newRepository());
+    posting = deposit(accountIds[0], 1);
+  }
+
+  @Setup(Level.Iteration)
+  public void resetAppendTarget() {
+    appendTarget = newRepository();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Transaction append() {
+    return appendTarget.addTransaction(posting);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long scanHistory() {
+    UUID accountId = accountIds[ThreadLocalRandom.current().nextInt(accounts)];
+    long sum = 0;
+    for (Transaction transaction : loaded.getTransactions(accountId)) {
+      sum += transaction.amount();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public TransactionRepository retainedHeap(Footprint footprint) {
+    long before = usedHeap();
+    TransactionRepository repository = fill(newRepository());
+    footprint.heapBytes = usedHeap() - before;
+    return repository;
+  }
+
+  private TransactionRepository fill(TransactionRepository repository) {
+    for (int i = 0; i < transactions; i++) {
+      repository.addTransaction(deposit(accountIds[i % accounts], i / accounts + 1));
+    }
+    return repository;
+  }
+
+  private TransactionRepository newRepository() {
+    return switch (store) {
+      case "list" -> new ListTransactionRepository(new ArrayList<>());
+      case "partitioned" -> new PartitionedTransactionRepository(new ConcurrentHashMap<>());
+      case "columnar" -> new ColumnarTransactionRepository(new ConcurrentHashMap<>());
+      default -> throw new IllegalArgumentException("Unknown store: " + store);
+    };
+  }
+
+  private static Transaction deposit(UUID accountId, int balance) {
+    return new Transaction(
+        UUID.randomUUID(),
+        accountId,
+        1,
+        Transaction.TransactionType.DEPOSIT,
+        balance,
+        System.currentTimeMillis() * 1_000);
+  }
+
+  private static long usedHeap() {
+    System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+}
@@ -0,0 +1,78 @@
+package com.example.ledger.service;
+
+import com.example.ledger.models.Balance;
+import com.example.ledger.models.Posting;
+import com.example.ledger.models.Transaction;
+import com.example.ledger.repository.MapBalanceRepository;
+import com.example.ledger.repository.PartitionedTransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of applying one posting to a balance, without storing it. Amounts and balances are far
+ * outside the range of cached boxes, so run with {@code -PjmhProfilers=gc}: {@code
+ * gc.alloc.rate.norm} is the bytes allocated per posting.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApplyBenchmark {
+  private static final long INITIAL_BALANCE = 5_000_000_000L;
+
+  private TransactionService transactionService;
+  private Posting[] postings;
+  private Balance balance;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    PartitionedTransactionRepository transactionRepository =
+        new PartitionedTransactionRepository(new ConcurrentHashMap<>());
+    transactionService =
+        new TransactionService(
+            transactionRepository,
+            new BalanceService(new MapBalanceRepository(new ConcurrentHashMap<>()), meterRegistry),
+            new AccountLocks(1024, meterRegistry),
+            new SystemLedgerClock(),
+            new TimeOrderedTransactionIdGenerator(),
+            new StatementAggregates(transactionRepository::getTransactions),
+            meterRegistry);
+    UUID accountId = UUID.randomUUID();
+    postings = new Posting[1024];
+    for (int i = 0; i < postings.length; i++) {
+      long amount = ThreadLocalRandom.current().nextLong(1_000, 1_000_000);
+      postings[i] =
+          i % 2 == 0 ? Posting.deposit(accountId, amount) : Posting.withdrawal(accountId, amount);
+    }
+    balance = new Balance(INITIAL_BALANCE, 0);
+  }
+
+  @Benchmark
+  public Transaction apply() {
+    Transaction transaction = transactionService.apply(postings[next++ & 1023], balance);
+    // keep the balance from drifting while the postings repeat
+    if ((next & 1023) == 0) {
+      balance = new Balance(INITIAL_BALANCE, 0);
+    } else {
+      balance = new Balance(transaction.balance(), transaction.createdAt());
+    }
+    return transaction;
+  }
+}
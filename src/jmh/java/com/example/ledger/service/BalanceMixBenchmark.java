@@ -0,0 +1,77 @@
+package com.example.ledger.service;
+
+import com.example.ledger.models.Balance;
+import com.example.ledger.repository.MapBalanceRepository;
+import com.example.ledger.repository.OffHeapBalanceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Balance reads on the GET balance path mixed with balance writes, from every core. Run with
+ * {@code -prof gc} to check that reads allocate nothing: what is left is the writes' balances.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class BalanceMixBenchmark {
+  @Param({"map", "off-heap"})
+  String store;
+
+  @Param({"0.95", "0.99"})
+  double readRatio;
+
+  @Param({"100000"})
+  int accounts;
+
+  private UUID[] accountIds;
+  private BalanceService balanceService;
+  private long now;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    balanceService =
+        new BalanceService(
+            store.equals("map")
+                ? new MapBalanceRepository(new ConcurrentHashMap<>())
+                : new OffHeapBalanceRepository(accounts),
+            new SimpleMeterRegistry());
+    accountIds = new UUID[accounts];
+    now = System.currentTimeMillis() * 1_000;
+    for (int i = 0; i < accounts; i++) {
+      accountIds[i] = UUID.randomUUID();
+      balanceService.saveBalance(accountIds[i], new Balance(i, now));
+    }
+  }
+
+  @Benchmark
+  public long readOrWrite() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    UUID accountId = accountIds[random.nextInt(accounts)];
+    if (random.nextDouble() < readRatio) {
+      return balanceService.getBalanceAmount(accountId);
+    }
+    long amount = random.nextInt(1_000_000);
+    balanceService.saveBalance(accountId, new Balance(amount, now));
+    return amount;
+  }
+}
@@ -0,0 +1,63 @@
+package com.example.ledger.service;
+
+import com.example.ledger.models.Balance;
+import com.example.ledger.repository.MapBalanceRepository;
+import com.example.ledger.repository.OffHeapBalanceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Latency of {@link BalanceService#getBalance} for known accounts, read from every core. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class BalanceReadBenchmark {
+  @Param({"map", "off-heap"})
+  String store;
+
+  @Param({"100000"})
+  int accounts;
+
+  private UUID[] accountIds;
+  private BalanceService balanceService;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    balanceService =
+        new BalanceService(
+            store.equals("map")
+                ? new MapBalanceRepository(new ConcurrentHashMap<>())
+                : new OffHeapBalanceRepository(accounts),
+            new SimpleMeterRegistry());
+    accountIds = new UUID[accounts];
+    long now = System.currentTimeMillis() * 1_000;
+    for (int i = 0; i < accounts; i++) {
+      accountIds[i] = UUID.randomUUID();
+      balanceService.saveBalance(accountIds[i], new Balance(i, now));
+    }
+  }
+
+  @Benchmark
+  public Balance getBalance() {
+    return balanceService.getBalance(accountIds[ThreadLocalRandom.current().nextInt(accounts)]);
+  }
+}
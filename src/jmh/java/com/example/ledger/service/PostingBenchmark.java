@@ -0,0 +1,101 @@
+package com.example.ledger.service;
+
+import com.example.ledger.models.Transaction;
+import com.example.ledger.repository.MapBalanceRepository;
+import com.example.ledger.repository.PartitionedTransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deposit and withdrawal throughput of {@link TransactionService} on one thread and on every
+ * core. A {@code hot} distribution sends every posting to the same account, {@code uniform}
+ * spreads them over {@code accounts} accounts, so comparing its single-threaded and concurrent
+ * scores shows how postings to distinct accounts scale with cores. The ledger is rebuilt every
+ * iteration so histories stay bounded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostingBenchmark {
+  private static final int INITIAL_BALANCE = 1_000_000_000;
+
+  @Param({"hot", "uniform"})
+  String distribution;
+
+  @Param({"10000"})
+  int accounts;
+
+  private UUID[] accountIds;
+  private TransactionService transactionService;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    PartitionedTransactionRepository transactionRepository =
+        new PartitionedTransactionRepository(new ConcurrentHashMap<>());
+    transactionService =
+        new TransactionService(
+            transactionRepository,
+            new BalanceService(new MapBalanceRepository(new ConcurrentHashMap<>()), meterRegistry),
+            new AccountLocks(1024, meterRegistry),
+            new SystemLedgerClock(),
+            new TimeOrderedTransactionIdGenerator(),
+            new StatementAggregates(transactionRepository::getTransactions),
+            meterRegistry);
+    accountIds = new UUID[accounts];
+    for (int i = 0; i < accounts; i++) {
+      accountIds[i] = UUID.randomUUID();
+      transactionService.createDeposit(accountIds[i], INITIAL_BALANCE);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Transaction deposit() {
+    return transactionService.createDeposit(nextAccount(), 1);
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Transaction depositConcurrent() {
+    return transactionService.createDeposit(nextAccount(), 1);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Transaction withdrawal() {
+    return transactionService.createWithdrawal(nextAccount(), 1);
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Transaction withdrawalConcurrent() {
+    return transactionService.createWithdrawal(nextAccount(), 1);
+  }
+
+  private UUID nextAccount() {
+    if (distribution.equals("hot")) {
+      return accountIds[0];
+    }
+    return accountIds[ThreadLocalRandom.current().nextInt(accounts)];
+  }
+}
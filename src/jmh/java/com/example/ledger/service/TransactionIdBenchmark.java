@@ -0,0 +1,71 @@
+package com.example.ledger.service;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Id generation throughput of {@code random} ({@link UUID#randomUUID()}) against {@code
+ * time-ordered} version 7 ids, from 1 to 64 threads. Each thread passes its own increasing
+ * timestamps, so the clock is not part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionIdBenchmark {
+  @Param({"random", "time-ordered"})
+  String generator;
+
+  private TransactionIdGenerator idGenerator;
+
+  @State(Scope.Thread)
+  public static class Timestamps {
+    long next = System.currentTimeMillis() * 1_000;
+  }
+
+  @Setup
+  public void setUp() {
+    idGenerator =
+        generator.equals("random")
+            ? new RandomTransactionIdGenerator()
+            : new TimeOrderedTransactionIdGenerator();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public UUID oneThread(Timestamps timestamps) {
+    return idGenerator.nextId(timestamps.next++);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public UUID fourThreads(Timestamps timestamps) {
+    return idGenerator.nextId(timestamps.next++);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public UUID sixteenThreads(Timestamps timestamps) {
+    return idGenerator.nextId(timestamps.next++);
+  }
+
+  @Benchmark
+  @Threads(64)
+  public UUID sixtyFourThreads(Timestamps timestamps) {
+    return idGenerator.nextId(timestamps.next++);
+  }
+}
@@ -0,0 +1,94 @@
+package com.example.ledger.service;
+
+import com.example.ledger.models.Transfer;
+import com.example.ledger.repository.MapBalanceRepository;
+import com.example.ledger.repository.PartitionedTransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Transfer throughput under contention. Every thread moves money between random pairs of {@code
+ * accounts} accounts in both directions, so two accounts are fully contended and thousands of
+ * accounts show how transfers scale across cores. Run with {@code -t} to vary the thread count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class TransferBenchmark {
+  private static final int INITIAL_BALANCE = 1_000_000_000;
+
+  @Param({"direct", "sharded"})
+  String engine;
+
+  @Param({"2", "64", "4096"})
+  int accounts;
+
+  private UUID[] accountIds;
+  private PostingEngine postingEngine;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    PartitionedTransactionRepository transactionRepository =
+        new PartitionedTransactionRepository(new ConcurrentHashMap<>());
+    TransactionService transactionService =
+        new TransactionService(
+            transactionRepository,
+            new BalanceService(new MapBalanceRepository(new ConcurrentHashMap<>()), meterRegistry),
+            new AccountLocks(1024, meterRegistry),
+            new SystemLedgerClock(),
+            new TimeOrderedTransactionIdGenerator(),
+            new StatementAggregates(transactionRepository::getTransactions),
+            meterRegistry);
+    postingEngine =
+        engine.equals("direct")
+            ? new DirectPostingEngine(transactionService)
+            : new ShardedPostingEngine(
+                transactionService,
+                Runtime.getRuntime().availableProcessors(),
+                256,
+                Duration.ZERO,
+                meterRegistry);
+    accountIds = new UUID[accounts];
+    for (int i = 0; i < accounts; i++) {
+      accountIds[i] = UUID.randomUUID();
+      transactionService.createDeposit(accountIds[i], INITIAL_BALANCE);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    postingEngine.close();
+  }
+
+  @Benchmark
+  public Transfer transfer() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int source = random.nextInt(accounts);
+    // any other account, so pairs are hit in both directions
+    int destination = (source + 1 + random.nextInt(accounts - 1)) % accounts;
+    return postingEngine.transfer(accountIds[source], accountIds[destination], 1).join();
+  }
+}
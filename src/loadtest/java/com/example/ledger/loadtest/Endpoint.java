@@ -0,0 +1,38 @@
+package com.example.ledger.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.UUID;
+
+/** The ledger endpoints a load test exercises, and the status each answers with on success. */
+enum Endpoint {
+  DEPOSIT("/deposits", 201),
+  WITHDRAWAL("/withdrawals", 201),
+  BALANCE("/balance", 200),
+  TRANSACTIONS("/transactions?limit=100", 200);
+
+  private static final String POSTING_BODY = "{\"amount\":1}";
+
+  private final String path;
+  private final int successStatus;
+
+  Endpoint(String path, int successStatus) {
+    this.path = path;
+    this.successStatus = successStatus;
+  }
+
+  HttpRequest request(URI baseUrl, UUID accountId) {
+    HttpRequest.Builder builder =
+        HttpRequest.newBuilder(baseUrl.resolve("/v1/accounts/" + accountId + path));
+    if (successStatus == 201) {
+      builder
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofString(POSTING_BODY));
+    }
+    return builder.build();
+  }
+
+  boolean isSuccess(int status) {
+    return status == successStatus;
+  }
+}
@@ -0,0 +1,198 @@
+package com.example.ledger.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Open-loop HTTP load generator for a running ledger. Each of {@code concurrency} workers sends
+ * requests on a fixed schedule that together adds up to {@code rate} requests per second, and
+ * latency is measured from when a request was scheduled rather than when it was sent. A stalled
+ * server therefore shows up in the percentiles as the queueing it would cause for real clients,
+ * instead of silently lowering the request rate (coordinated omission).
+ *
+ * <p>Run with {@code ./gradlew loadTest --args="--accounts=10000 --skew=1.1 --rate=5000"} against
+ * an application started with {@code ./gradlew bootRun}.
+ */
+public final class LoadGenerator {
+  private static final int INITIAL_BALANCE = 1_000_000_000;
+
+  private final LoadTestOptions options;
+  private final HttpClient client;
+  private final UUID[] accountIds;
+  private final ZipfDistribution accountDistribution;
+  private final Map<Endpoint, Recorder> latencies = new EnumMap<>(Endpoint.class);
+  private final Map<Endpoint, Recorder> serviceTimes = new EnumMap<>(Endpoint.class);
+  private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+
+  LoadGenerator(LoadTestOptions options) {
+    this.options = options;
+    this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    this.accountIds = new UUID[options.accounts()];
+    for (int i = 0; i < accountIds.length; i++) {
+      accountIds[i] = UUID.randomUUID();
+    }
+    this.accountDistribution = new ZipfDistribution(options.accounts(), options.skew());
+    for (Endpoint endpoint : Endpoint.values()) {
+      latencies.put(endpoint, new Recorder(3));
+      serviceTimes.put(endpoint, new Recorder(3));
+      errors.put(endpoint, new LongAdder());
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoadTestOptions options = LoadTestOptions.parse(args);
+    LoadGenerator generator = new LoadGenerator(options);
+    System.out.printf("Funding %d accounts at %s%n", options.accounts(), options.baseUrl());
+    generator.fundAccounts();
+    System.out.printf(
+        "Sending %d requests/s from %d workers for %ds after %ds of warmup%n",
+        options.rate(),
+        options.concurrency(),
+        options.duration().toSeconds(),
+        options.warmup().toSeconds());
+    generator.run();
+    generator.report();
+  }
+
+  /** Deposits enough into every account that withdrawals of 1 never run out of funds. */
+  private void fundAccounts() throws Exception {
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<HttpResponse<Void>>> responses = new ArrayList<>();
+      for (UUID accountId : accountIds) {
+        HttpRequest deposit =
+            HttpRequest.newBuilder(
+                    options.baseUrl().resolve("/v1/accounts/" + accountId + "/deposits"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":" + INITIAL_BALANCE + "}"))
+                .build();
+        responses.add(
+            executor.submit(() -> client.send(deposit, HttpResponse.BodyHandlers.discarding())));
+      }
+      for (Future<HttpResponse<Void>> response : responses) {
+        int status = response.get().statusCode();
+        if (status != 201) {
+          throw new IllegalStateException("Funding an account failed with status " + status);
+        }
+      }
+    }
+  }
+
+  private void run() throws InterruptedException {
+    long intervalNanos = TimeUnit.SECONDS.toNanos(options.concurrency()) / options.rate();
+    long start = System.nanoTime();
+    long recordFrom = start + options.warmup().toNanos();
+    long end = recordFrom + options.duration().toNanos();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int worker = 0; worker < options.concurrency(); worker++) {
+        // stagger the workers so their schedules interleave evenly
+        long firstRequest = start + intervalNanos * worker / options.concurrency();
+        executor.execute(() -> work(firstRequest, intervalNanos, recordFrom, end));
+      }
+    }
+  }
+
+  private void work(long firstRequest, long intervalNanos, long recordFrom, long end) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (long scheduled = firstRequest; scheduled < end; scheduled += intervalNanos) {
+      long now;
+      while ((now = System.nanoTime()) < scheduled) {
+        LockSupport.parkNanos(scheduled - now);
+      }
+      Endpoint endpoint = nextEndpoint(random);
+      UUID accountId = accountIds[accountDistribution.sample(random)];
+      long sent = System.nanoTime();
+      boolean succeeded = send(endpoint.request(options.baseUrl(), accountId), endpoint);
+      long completed = System.nanoTime();
+      if (scheduled >= recordFrom) {
+        latencies.get(endpoint).recordValue(TimeUnit.NANOSECONDS.toMicros(completed - scheduled));
+        serviceTimes.get(endpoint).recordValue(TimeUnit.NANOSECONDS.toMicros(completed - sent));
+        if (!succeeded) {
+          errors.get(endpoint).increment();
+        }
+      }
+    }
+  }
+
+  private Endpoint nextEndpoint(ThreadLocalRandom random) {
+    boolean read = random.nextDouble() < options.readRatio();
+    if (read) {
+      return random.nextBoolean() ? Endpoint.BALANCE : Endpoint.TRANSACTIONS;
+    }
+    return random.nextBoolean() ? Endpoint.DEPOSIT : Endpoint.WITHDRAWAL;
+  }
+
+  private boolean send(HttpRequest request, Endpoint endpoint) {
+    try {
+      return endpoint.isSuccess(
+          client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+    } catch (IOException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void report() {
+    double seconds = options.duration().toNanos() / 1e9;
+    System.out.printf(
+        "%n%-13s %9s %7s %9s %9s %9s %9s %9s %12s%n",
+        "endpoint",
+        "requests",
+        "errors",
+        "req/s",
+        "p50 ms",
+        "p99 ms",
+        "p99.9 ms",
+        "max ms",
+        "svc p99 ms");
+    Histogram totalLatency = new Histogram(3);
+    Histogram totalServiceTime = new Histogram(3);
+    for (Endpoint endpoint : Endpoint.values()) {
+      Histogram latency = latencies.get(endpoint).getIntervalHistogram();
+      Histogram serviceTime = serviceTimes.get(endpoint).getIntervalHistogram();
+      totalLatency.add(latency);
+      totalServiceTime.add(serviceTime);
+      printRow(
+          endpoint.name().toLowerCase(), latency, serviceTime, errors.get(endpoint).sum(), seconds);
+    }
+    long totalErrors = errors.values().stream().mapToLong(LongAdder::sum).sum();
+    printRow("all", totalLatency, totalServiceTime, totalErrors, seconds);
+  }
+
+  /**
+   * Prints one endpoint's results. Percentiles are of the corrected latency; the service time p99
+   * next to them is measured from when the request was actually sent, so a large gap between the
+   * two means requests queued in the generator behind slow responses.
+   */
+  private static void printRow(
+      String name, Histogram latency, Histogram serviceTime, long errors, double seconds) {
+    System.out.printf(
+        "%-13s %9d %7d %9.0f %9.2f %9.2f %9.2f %9.2f %12.2f%n",
+        name,
+        latency.getTotalCount(),
+        errors,
+        latency.getTotalCount() / seconds,
+        latency.getValueAtPercentile(50) / 1000.0,
+        latency.getValueAtPercentile(99) / 1000.0,
+        latency.getValueAtPercentile(99.9) / 1000.0,
+        latency.getMaxValue() / 1000.0,
+        serviceTime.getValueAtPercentile(99) / 1000.0);
+  }
+}
@@ -0,0 +1,70 @@
+package com.example.ledger.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, parsed from {@code --name=value} arguments.
+ *
+ * @param baseUrl where the ledger is listening
+ * @param accounts number of accounts postings and reads are spread over
+ * @param skew Zipf exponent of the account distribution, 0 spreads requests uniformly
+ * @param readRatio share of requests that read balances or history instead of posting
+ * @param concurrency number of requests in flight at most
+ * @param rate requests per second the generator intends to send, whatever the latency
+ * @param duration how long requests are recorded
+ * @param warmup how long requests are sent before recording starts
+ */
+record LoadTestOptions(
+    URI baseUrl,
+    int accounts,
+    double skew,
+    double readRatio,
+    int concurrency,
+    int rate,
+    Duration duration,
+    Duration warmup) {
+
+  static LoadTestOptions parse(String[] args) {
+    Map<String, String> values = new HashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        throw new IllegalArgumentException("Expected --name=value but got " + arg);
+      }
+      values.put(arg.substring(2, separator), arg.substring(separator + 1));
+    }
+    LoadTestOptions options =
+        new LoadTestOptions(
+            URI.create(values.getOrDefault("base-url", "http://localhost:8080")),
+            Integer.parseInt(values.getOrDefault("accounts", "10000")),
+            Double.parseDouble(values.getOrDefault("skew", "1.0")),
+            Double.parseDouble(values.getOrDefault("read-ratio", "0.5")),
+            Integer.parseInt(values.getOrDefault("concurrency", "64")),
+            Integer.parseInt(values.getOrDefault("rate", "2000")),
+            parseDuration(values.getOrDefault("duration", "60s")),
+            parseDuration(values.getOrDefault("warmup", "10s")));
+    if (options.accounts < 1 || options.concurrency < 1 || options.rate < 1) {
+      throw new IllegalArgumentException("accounts, concurrency and rate must be positive");
+    }
+    if (options.readRatio < 0 || options.readRatio > 1) {
+      throw new IllegalArgumentException("read-ratio must be between 0 and 1");
+    }
+    return options;
+  }
+
+  /** Parses durations written like {@code 500ms}, {@code 30s} or {@code 5m}. */
+  private static Duration parseDuration(String value) {
+    if (value.endsWith("ms")) {
+      return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+    }
+    long amount = Long.parseLong(value.substring(0, value.length() - 1));
+    return switch (value.charAt(value.length() - 1)) {
+      case 's' -> Duration.ofSeconds(amount);
+      case 'm' -> Duration.ofMinutes(amount);
+      default -> throw new IllegalArgumentException("Unsupported duration " + value);
+    };
+  }
+}
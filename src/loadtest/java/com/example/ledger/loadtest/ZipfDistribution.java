@@ -0,0 +1,30 @@
+package com.example.ledger.loadtest;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples ranks {@code 0..n-1} where rank {@code k} is drawn with probability proportional to
+ * {@code 1 / (k + 1)^skew}, so a few accounts take most of the traffic as the skew grows.
+ */
+final class ZipfDistribution {
+  private final double[] cumulative;
+
+  ZipfDistribution(int n, double skew) {
+    cumulative = new double[n];
+    double sum = 0;
+    for (int k = 0; k < n; k++) {
+      sum += 1 / Math.pow(k + 1, skew);
+      cumulative[k] = sum;
+    }
+    for (int k = 0; k < n; k++) {
+      cumulative[k] /= sum;
+    }
+  }
+
+  int sample(RandomGenerator random) {
+    int index = Arrays.binarySearch(cumulative, random.nextDouble());
+    // a miss returns -(insertion point) - 1, the first rank whose cumulative share is larger
+    return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+  }
+}
@@ -1,18 +1,30 @@
 package com.example.ledger.api;
 
+import static com.example.ledger.api.Futures.await;
+
 import com.example.ledger.generated.api.AccountApi;
 import com.example.ledger.generated.model.BalanceResponse;
 import com.example.ledger.generated.model.DepositRequest;
+import com.example.ledger.generated.model.SummaryBucket;
+import com.example.ledger.generated.model.SummaryPeriod;
+import com.example.ledger.generated.model.SummaryResponse;
 import com.example.ledger.generated.model.TransactionResponse;
 import com.example.ledger.generated.model.TransactionsListResponse;
 import com.example.ledger.generated.model.WithdrawalRequest;
 import com.example.ledger.mappers.AccountMapper;
 import com.example.ledger.models.Balance;
+import com.example.ledger.models.Posting;
 import com.example.ledger.models.Transaction;
+import com.example.ledger.models.TransactionPage;
 import com.example.ledger.service.BalanceService;
+import com.example.ledger.service.IdempotencyCache;
+import com.example.ledger.service.PostingEngine;
 import com.example.ledger.service.TransactionService;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -20,53 +32,100 @@ import org.springframework.web.bind.annotation.RestController;
 public class AccountController implements AccountApi {
 
   private final TransactionService transactionService;
+  private final PostingEngine postingEngine;
+  private final IdempotencyCache idempotencyCache;
   private final BalanceService balanceService;
   private final AccountMapper accountMapper;
 
   public AccountController(
       TransactionService transactionService,
+      PostingEngine postingEngine,
+      IdempotencyCache idempotencyCache,
       BalanceService balanceService,
       AccountMapper accountMapper) {
     this.transactionService = transactionService;
+    this.postingEngine = postingEngine;
+    this.idempotencyCache = idempotencyCache;
     this.balanceService = balanceService;
     this.accountMapper = accountMapper;
   }
 
   @Override
   public ResponseEntity<TransactionResponse> createDeposit(
-      UUID accountId, DepositRequest depositRequest) {
+      UUID accountId, DepositRequest depositRequest, String idempotencyKey) {
 
     Transaction transaction =
-        transactionService.createDeposit(accountId, depositRequest.getAmount());
+        await(submit(Posting.deposit(accountId, depositRequest.getAmount()), idempotencyKey));
 
     return ResponseEntity.status(201).body(accountMapper.toTransactionResponse(transaction));
   }
 
   @Override
   public ResponseEntity<TransactionResponse> createWithdrawal(
-      UUID accountId, WithdrawalRequest withdrawalRequest) {
+      UUID accountId, WithdrawalRequest withdrawalRequest, String idempotencyKey) {
     Transaction transaction =
-        transactionService.createWithdrawal(accountId, withdrawalRequest.getAmount());
+        await(
+            submit(Posting.withdrawal(accountId, withdrawalRequest.getAmount()), idempotencyKey));
 
     return ResponseEntity.status(201).body(accountMapper.toTransactionResponse(transaction));
   }
 
   @Override
-  public ResponseEntity<BalanceResponse> getBalance(UUID accountId) {
-    Balance balance = balanceService.getBalance(accountId);
-    return ResponseEntity.ok(accountMapper.toBalanceResponse(balance));
+  public ResponseEntity<BalanceResponse> getBalance(UUID accountId, OffsetDateTime asOf) {
+    if (asOf != null) {
+      Balance balance =
+          transactionService.getBalanceAsOf(accountId, accountMapper.toEpochMicros(asOf));
+      return ResponseEntity.ok(accountMapper.toBalanceResponse(balance));
+    }
+
+    // the current balance only needs the amount, which is read without building a Balance
+    BalanceResponse balanceResponse = new BalanceResponse();
+    balanceResponse.setAmount(balanceService.getBalanceAmount(accountId));
+    return ResponseEntity.ok(balanceResponse);
   }
 
   @Override
-  public ResponseEntity<TransactionsListResponse> getTransactions(UUID accountId) {
+  public ResponseEntity<TransactionsListResponse> getTransactions(
+      UUID accountId, Integer limit, String cursor, OffsetDateTime from, OffsetDateTime to) {
+    TransactionPage page =
+        transactionService.getTransactions(
+            accountId,
+            TransactionCursor.decode(cursor),
+            limit,
+            accountMapper.toEpochMicros(from),
+            accountMapper.toEpochMicros(to));
     List<TransactionResponse> transactions =
-        transactionService.getTransactions(accountId).stream()
-            .map(accountMapper::toTransactionResponse)
-            .toList();
+        page.transactions().stream().map(accountMapper::toTransactionResponse).toList();
 
     TransactionsListResponse transactionsListResponse = new TransactionsListResponse();
     transactionsListResponse.setTransactions(transactions);
+    if (page.nextPosition() != null) {
+      transactionsListResponse.setNextCursor(TransactionCursor.encode(page.nextPosition()));
+    }
 
     return ResponseEntity.ok(transactionsListResponse);
   }
+
+  @Override
+  public ResponseEntity<SummaryResponse> getSummary(
+      UUID accountId, SummaryPeriod period, LocalDate from, LocalDate to) {
+    List<SummaryBucket> buckets =
+        transactionService
+            .getStatement(accountId, accountMapper.toStatementPeriod(period), from, to)
+            .stream()
+            .map(accountMapper::toSummaryBucket)
+            .toList();
+
+    SummaryResponse summaryResponse = new SummaryResponse();
+    summaryResponse.setPeriod(period);
+    summaryResponse.setBuckets(buckets);
+    return ResponseEntity.ok(summaryResponse);
+  }
+
+  private CompletableFuture<Transaction> submit(Posting posting, String idempotencyKey) {
+    if (idempotencyKey == null) {
+      return postingEngine.submit(posting);
+    }
+    return idempotencyCache.submit(idempotencyKey, posting, postingEngine::submit);
+  }
 }
@@ -0,0 +1,91 @@
+package com.example.ledger.api;
+
+import com.example.ledger.config.LedgerProperties;
+import com.example.ledger.exceptions.SequenceExpiredException;
+import com.example.ledger.feed.ChangeFeed;
+import com.example.ledger.mappers.AccountMapper;
+import java.io.IOException;
+import java.time.Duration;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams every stored transaction to downstream consumers as server-sent events. Mapped by hand
+ * rather than in {@code api-spec.yml} because the generated interface cannot return an event
+ * stream.
+ */
+@RestController
+public class ChangeFeedController {
+  private static final int BATCH_SIZE = 256;
+
+  private final ChangeFeed changeFeed;
+  private final AccountMapper accountMapper;
+  private final Duration heartbeat;
+
+  public ChangeFeedController(
+      ChangeFeed changeFeed, AccountMapper accountMapper, LedgerProperties properties) {
+    this.changeFeed = changeFeed;
+    this.accountMapper = accountMapper;
+    this.heartbeat = properties.feed().heartbeat();
+  }
+
+  /**
+   * Each {@code transaction} event carries the change's sequence number as its id. A consumer
+   * resumes after the last change it processed with {@code after} or the standard {@code
+   * Last-Event-ID} header; with neither, the stream starts at the next change. A consumer that is
+   * too far behind, or resumes after a sequence this feed never reached, gets an {@code expired}
+   * event and the stream ends.
+   *
+   * <p>Each stream is served by its own virtual thread, which blocks while the consumer's socket is
+   * full without holding back writers or other consumers.
+   */
+  @GetMapping(value = "/v1/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamChanges(
+      @RequestParam(name = "after", required = false) Long after,
+      @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+    long from =
+        after != null ? after : lastEventId != null ? lastEventId : changeFeed.lastSequence();
+    // no timeout: the stream lasts as long as the consumer stays connected
+    SseEmitter emitter = new SseEmitter(0L);
+    Thread thread =
+        Thread.ofVirtual().name("ledger-change-stream").start(() -> stream(emitter, from));
+    emitter.onCompletion(thread::interrupt);
+    return emitter;
+  }
+
+  private void stream(SseEmitter emitter, long after) {
+    ChangeFeed.Change[] changes = new ChangeFeed.Change[BATCH_SIZE];
+    long sequence = after;
+    try {
+      while (true) {
+        int count = changeFeed.read(sequence, changes);
+        for (int i = 0; i < count; i++) {
+          emitter.send(
+              SseEmitter.event()
+                  .id(Long.toString(changes[i].sequence()))
+                  .name("transaction")
+                  .data(
+                      accountMapper.toTransactionResponse(changes[i].transaction()),
+                      MediaType.APPLICATION_JSON));
+          sequence = changes[i].sequence();
+        }
+        if (count == 0 && !changeFeed.awaitAfter(sequence, heartbeat)) {
+          emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+      }
+    } catch (SequenceExpiredException e) {
+      try {
+        emitter.send(SseEmitter.event().name("expired").data(e.getMessage()));
+        emitter.complete();
+      } catch (IOException | IllegalStateException ignored) {
+        // the consumer went away as well
+      }
+    } catch (IOException | IllegalStateException | InterruptedException e) {
+      // the consumer went away, and the container completes the request
+    }
+  }
+}
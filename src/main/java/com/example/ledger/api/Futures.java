@@ -0,0 +1,20 @@
+package com.example.ledger.api;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+final class Futures {
+  private Futures() {}
+
+  // unwraps engine failures so GlobalExceptionHandler sees e.g. InsufficientFundsException
+  static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
@@ -1,6 +1,10 @@
 package com.example.ledger.api;
 
+import com.example.ledger.exceptions.BalanceOverflowException;
+import com.example.ledger.exceptions.IdempotencyKeyReusedException;
 import com.example.ledger.exceptions.InsufficientFundsException;
+import com.example.ledger.exceptions.InvalidCursorException;
+import com.example.ledger.exceptions.InvalidTransferException;
 import com.example.ledger.generated.model.Error;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,4 +20,33 @@ public class GlobalExceptionHandler {
     error.setMessage(ex.getMessage());
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
   }
+
+  @ExceptionHandler(BalanceOverflowException.class)
+  public ResponseEntity<Error> handleBalanceOverflowException(BalanceOverflowException ex) {
+    Error error = new Error();
+    error.setMessage(ex.getMessage());
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+  }
+
+  @ExceptionHandler(IdempotencyKeyReusedException.class)
+  public ResponseEntity<Error> handleIdempotencyKeyReusedException(
+      IdempotencyKeyReusedException ex) {
+    Error error = new Error();
+    error.setMessage(ex.getMessage());
+    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
+  }
+
+  @ExceptionHandler(InvalidTransferException.class)
+  public ResponseEntity<Error> handleInvalidTransferException(InvalidTransferException ex) {
+    Error error = new Error();
+    error.setMessage(ex.getMessage());
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+  }
+
+  @ExceptionHandler(InvalidCursorException.class)
+  public ResponseEntity<Error> handleInvalidCursorException(InvalidCursorException ex) {
+    Error error = new Error();
+    error.setMessage(ex.getMessage());
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+  }
 }
@@ -0,0 +1,72 @@
+package com.example.ledger.api;
+
+import static com.example.ledger.api.Futures.await;
+
+import com.example.ledger.generated.api.PostingApi;
+import com.example.ledger.generated.model.Error;
+import com.example.ledger.generated.model.PostingBatchRequest;
+import com.example.ledger.generated.model.PostingBatchResponse;
+import com.example.ledger.generated.model.PostingResult;
+import com.example.ledger.generated.model.TransferRequest;
+import com.example.ledger.generated.model.TransferResponse;
+import com.example.ledger.mappers.AccountMapper;
+import com.example.ledger.models.Posting;
+import com.example.ledger.models.PostingOutcome;
+import com.example.ledger.models.Transfer;
+import com.example.ledger.service.PostingEngine;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class PostingController implements PostingApi {
+
+  private final PostingEngine postingEngine;
+  private final AccountMapper accountMapper;
+
+  public PostingController(PostingEngine postingEngine, AccountMapper accountMapper) {
+    this.postingEngine = postingEngine;
+    this.accountMapper = accountMapper;
+  }
+
+  @Override
+  public ResponseEntity<PostingBatchResponse> createPostingBatch(
+      PostingBatchRequest postingBatchRequest) {
+    List<Posting> postings =
+        postingBatchRequest.getPostings().stream().map(accountMapper::toPosting).toList();
+
+    List<PostingResult> results =
+        await(postingEngine.submitAll(postings)).stream().map(this::toPostingResult).toList();
+
+    PostingBatchResponse postingBatchResponse = new PostingBatchResponse();
+    postingBatchResponse.setResults(results);
+
+    return ResponseEntity.ok(postingBatchResponse);
+  }
+
+  @Override
+  public ResponseEntity<TransferResponse> createTransfer(TransferRequest transferRequest) {
+    Transfer transfer =
+        await(
+            postingEngine.transfer(
+                transferRequest.getSourceAccountId(),
+                transferRequest.getDestinationAccountId(),
+                transferRequest.getAmount()));
+
+    return ResponseEntity.status(201).body(accountMapper.toTransferResponse(transfer));
+  }
+
+  private PostingResult toPostingResult(PostingOutcome outcome) {
+    PostingResult result = new PostingResult();
+    if (outcome.isPosted()) {
+      result.setStatus(PostingResult.StatusEnum.POSTED);
+      result.setTransaction(accountMapper.toTransactionResponse(outcome.transaction()));
+    } else {
+      Error error = new Error();
+      error.setMessage(outcome.failure().getMessage());
+      result.setStatus(PostingResult.StatusEnum.REJECTED);
+      result.setError(error);
+    }
+    return result;
+  }
+}
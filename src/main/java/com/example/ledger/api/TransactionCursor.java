@@ -0,0 +1,34 @@
+package com.example.ledger.api;
+
+import com.example.ledger.exceptions.InvalidCursorException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/** Opaque page cursors: the URL-safe Base64 of a position in the account's history. */
+final class TransactionCursor {
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private TransactionCursor() {}
+
+  static String encode(int position) {
+    return ENCODER.encodeToString(ByteBuffer.allocate(Integer.BYTES).putInt(position).array());
+  }
+
+  static int decode(String cursor) {
+    if (cursor == null) {
+      return 0;
+    }
+    byte[] bytes;
+    try {
+      bytes = DECODER.decode(cursor);
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException("Cursor is not valid");
+    }
+    int position = bytes.length == Integer.BYTES ? ByteBuffer.wrap(bytes).getInt() : -1;
+    if (position < 0) {
+      throw new InvalidCursorException("Cursor is not valid");
+    }
+    return position;
+  }
+}
@@ -0,0 +1,69 @@
+package com.example.ledger.api;
+
+import com.example.ledger.mappers.AccountMapper;
+import com.example.ledger.models.Transaction;
+import com.example.ledger.service.TransactionService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Streams an account's full history as newline-delimited JSON for reconciliation jobs. Mapped by
+ * hand rather than in {@code api-spec.yml} because the generated interface cannot return a
+ * streaming body.
+ */
+@RestController
+public class TransactionExportController {
+
+  private final TransactionService transactionService;
+  private final AccountMapper accountMapper;
+  private final ObjectWriter objectWriter;
+
+  public TransactionExportController(
+      TransactionService transactionService,
+      AccountMapper accountMapper,
+      ObjectMapper objectMapper) {
+    this.transactionService = transactionService;
+    this.accountMapper = accountMapper;
+    // let the response buffer decide when to flush instead of flushing every line
+    this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  /**
+   * Transactions are mapped and written one at a time from the history snapshot taken when the
+   * request arrives, so heap use does not grow with the account. Writes block while the client's
+   * socket is full, which holds the export back to the pace the client reads at.
+   */
+  @GetMapping(
+      value = "/v1/accounts/{accountId}/transactions/export",
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> exportTransactions(@PathVariable UUID accountId) {
+    List<Transaction> transactions = transactionService.getTransactions(accountId);
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(out -> write(transactions, out));
+  }
+
+  private void write(List<Transaction> transactions, OutputStream out) throws IOException {
+    try (JsonGenerator generator = objectWriter.createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      // lines are terminated explicitly instead of separated by the default space
+      generator.setRootValueSeparator(null);
+      for (Transaction transaction : transactions) {
+        objectWriter.writeValue(generator, accountMapper.toTransactionResponse(transaction));
+        generator.writeRaw('\n');
+      }
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package com.example.ledger.config;
+
+import com.example.ledger.journal.FsyncPolicy;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "ledger")
+public record LedgerProperties(
+    @DefaultValue Repository repository,
+    @DefaultValue Concurrency concurrency,
+    @DefaultValue Engine engine,
+    @DefaultValue Idempotency idempotency,
+    @DefaultValue Feed feed,
+    @DefaultValue Ids ids) {
+
+  /**
+   * @param transactionStore how transactions are stored in memory
+   * @param balanceStore how balances are stored in memory
+   * @param expectedAccounts accounts the {@link BalanceStore#OFF_HEAP} table is sized for, it does
+   *     not grow beyond that
+   * @param journal durable journal settings
+   * @param tiering where and when the {@link TransactionStore#TIERED} store moves history to disk
+   */
+  public record Repository(
+      @DefaultValue("partitioned") TransactionStore transactionStore,
+      @DefaultValue("map") BalanceStore balanceStore,
+      @DefaultValue("1000000") long expectedAccounts,
+      @DefaultValue Journal journal,
+      @DefaultValue Tiering tiering) {}
+
+  public enum TransactionStore {
+    /** A single list shared by all accounts, filtered on every read. */
+    LIST,
+    /** One append-only segment per account. */
+    PARTITIONED,
+    /** Primitive columns shared by all accounts, indexed by account. */
+    COLUMNAR,
+    /** Recent history per account on the heap, older history in compressed files on disk. */
+    TIERED
+  }
+
+  public enum BalanceStore {
+    /** A concurrent map of balance records on the heap. */
+    MAP,
+    /** A fixed-capacity table of primitive slots outside the heap. */
+    OFF_HEAP
+  }
+
+  /**
+   * @param enabled whether transactions are written to a durable journal and replayed at startup
+   * @param directory where journal segment files are stored
+   * @param segmentSize size of each memory-mapped segment file, at most 2GB
+   * @param fsyncPolicy when appended records are forced to disk
+   * @param fsyncInterval how often records are forced to disk with {@link FsyncPolicy#INTERVAL}
+   * @param snapshotInterval how often a balance snapshot is written, which bounds how much of the
+   *     journal is replayed at startup
+   * @param snapshotsRetained how many snapshot files are kept
+   */
+  public record Journal(
+      @DefaultValue("false") boolean enabled,
+      @DefaultValue("data/journal") Path directory,
+      @DefaultValue("64MB") DataSize segmentSize,
+      @DefaultValue("per-batch") FsyncPolicy fsyncPolicy,
+      @DefaultValue("10ms") Duration fsyncInterval,
+      @DefaultValue("1m") Duration snapshotInterval,
+      @DefaultValue("2") int snapshotsRetained) {}
+
+  /**
+   * @param directory where cold segment files are written, cleared at startup
+   * @param hotRetention how long transactions stay on the heap
+   * @param bucket time span of each cold segment file, only whole buckets are moved to disk
+   * @param compactionInterval how often history older than the hot retention is moved to disk
+   */
+  public record Tiering(
+      @DefaultValue("data/cold") Path directory,
+      @DefaultValue("1d") Duration hotRetention,
+      @DefaultValue("1h") Duration bucket,
+      @DefaultValue("5m") Duration compactionInterval) {}
+
+  /**
+   * @param lockStripes number of account locks, rounded up to a power of two
+   */
+  public record Concurrency(@DefaultValue("1024") int lockStripes) {}
+
+  /**
+   * @param mode how postings are executed
+   * @param shards number of shard threads in {@link EngineMode#SHARDED} mode, defaults to the
+   *     number of available processors
+   * @param batch group commit settings of the shards
+   */
+  public record Engine(
+      @DefaultValue("direct") EngineMode mode,
+      @DefaultValue("0") int shards,
+      @DefaultValue Batch batch) {
+    public int shardCount() {
+      return shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+    }
+  }
+
+  /**
+   * @param maxSize most postings stored by one group commit
+   * @param window how long a shard waits for more postings before committing, zero commits whatever
+   *     is already queued
+   */
+  public record Batch(@DefaultValue("256") int maxSize, @DefaultValue("0ms") Duration window) {}
+
+  /**
+   * @param maximumSize most idempotency keys remembered at once, least recently used ones are
+   *     evicted first
+   * @param timeToLive how long a key is remembered after its posting
+   */
+  public record Idempotency(
+      @DefaultValue("100000") long maximumSize, @DefaultValue("24h") Duration timeToLive) {}
+
+  /**
+   * @param capacity most recent changes kept for consumers of the change feed that fall behind
+   * @param heartbeat how often an idle change stream sends a comment, which also detects consumers
+   *     that went away
+   */
+  public record Feed(
+      @DefaultValue("65536") int capacity, @DefaultValue("15s") Duration heartbeat) {}
+
+  /**
+   * @param scheme how transaction and transfer ids are generated
+   */
+  public record Ids(@DefaultValue("time-ordered") IdScheme scheme) {}
+
+  public enum IdScheme {
+    /** Version 7 UUIDs that sort by creation time, from per-thread randomness. */
+    TIME_ORDERED,
+    /** Version 4 UUIDs from the shared {@code SecureRandom}. */
+    RANDOM
+  }
+
+  public enum EngineMode {
+    /** Postings run on the request thread under striped account locks. */
+    DIRECT,
+    /** Accounts are hashed to single-writer shards, each draining its own queue. */
+    SHARDED
+  }
+}
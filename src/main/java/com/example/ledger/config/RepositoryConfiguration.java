@@ -1,22 +1,184 @@
 package com.example.ledger.config;
 
+import com.example.ledger.feed.ChangeFeed;
+import com.example.ledger.journal.BalanceCheckpointer;
+import com.example.ledger.journal.BalanceSnapshotStore;
+import com.example.ledger.journal.JournalRecovery;
+import com.example.ledger.journal.TransactionJournal;
 import com.example.ledger.repository.BalanceRepository;
+import com.example.ledger.repository.ColumnarTransactionRepository;
+import com.example.ledger.repository.JournaledTransactionRepository;
+import com.example.ledger.repository.ListTransactionRepository;
+import com.example.ledger.repository.MapBalanceRepository;
+import com.example.ledger.repository.OffHeapBalanceRepository;
+import com.example.ledger.repository.PartitionedTransactionRepository;
+import com.example.ledger.repository.PublishingTransactionRepository;
+import com.example.ledger.repository.TieredTransactionRepository;
 import com.example.ledger.repository.TransactionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class RepositoryConfiguration {
   @Bean
-  BalanceRepository balanceRepository() {
-    return new BalanceRepository(new ConcurrentHashMap<>());
+  BalanceRepository balanceRepository(LedgerProperties properties) {
+    LedgerProperties.Repository repository = properties.repository();
+    return switch (repository.balanceStore()) {
+      case MAP -> new MapBalanceRepository(new ConcurrentHashMap<>());
+      case OFF_HEAP -> new OffHeapBalanceRepository(repository.expectedAccounts());
+    };
   }
 
   @Bean
-  TransactionRepository transactionRepository() {
-    return new TransactionRepository(Collections.synchronizedList(new ArrayList<>()));
+  @ConditionalOnProperty(name = "ledger.repository.journal.enabled", havingValue = "true")
+  TransactionJournal transactionJournal(LedgerProperties properties) throws IOException {
+    LedgerProperties.Journal journal = properties.repository().journal();
+    return TransactionJournal.open(
+        journal.directory(),
+        Math.toIntExact(journal.segmentSize().toBytes()),
+        journal.fsyncPolicy(),
+        journal.fsyncInterval());
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "ledger.repository.journal.enabled", havingValue = "true")
+  BalanceSnapshotStore balanceSnapshotStore(LedgerProperties properties) throws IOException {
+    LedgerProperties.Journal journal = properties.repository().journal();
+    return new BalanceSnapshotStore(
+        journal.directory().resolve("snapshots"), journal.snapshotsRetained());
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "ledger.repository.journal.enabled", havingValue = "true")
+  BalanceCheckpointer balanceCheckpointer(
+      LedgerProperties properties,
+      TransactionJournal transactionJournal,
+      BalanceSnapshotStore balanceSnapshotStore) {
+    return new BalanceCheckpointer(
+        transactionJournal,
+        balanceSnapshotStore,
+        properties.repository().journal().snapshotInterval());
+  }
+
+  /** With a journal, sequence numbers carry on from the journal's, so they grow across restarts. */
+  @Bean
+  ChangeFeed changeFeed(
+      LedgerProperties properties, ObjectProvider<TransactionJournal> transactionJournal) {
+    TransactionJournal journal = transactionJournal.getIfAvailable();
+    return new ChangeFeed(
+        properties.feed().capacity(), journal == null ? 0 : journal.nextSequence());
+  }
+
+  /**
+   * The transaction store and the newest creation time it was recovered with, {@link
+   * Long#MIN_VALUE} when nothing was, which the ledger clock must stay ahead of.
+   */
+  record StoredTransactions(TransactionRepository repository, long lastCreatedAt) {}
+
+  @Bean
+  TransactionRepository transactionRepository(
+      StoredTransactions storedTransactions, ChangeFeed changeFeed) {
+    return new PublishingTransactionRepository(storedTransactions.repository(), changeFeed);
+  }
+
+  /** With a journal, the store is rebuilt from it before anything is served. */
+  @Bean
+  StoredTransactions storedTransactions(
+      LedgerProperties properties,
+      BalanceRepository balanceRepository,
+      ObjectProvider<TransactionJournal> transactionJournal,
+      ObjectProvider<BalanceSnapshotStore> balanceSnapshotStore)
+      throws IOException {
+    TransactionRepository store = newTransactionStore(properties, "live");
+
+    TransactionJournal journal = transactionJournal.getIfAvailable();
+    if (journal == null) {
+      return new StoredTransactions(store, Long.MIN_VALUE);
+    }
+    JournalRecovery.Result recovery =
+        JournalRecovery.recover(
+            journal, balanceSnapshotStore.getObject(), store, balanceRepository);
+    compactReplayed(store);
+    if (recovery.snapshotSequence() == 0) {
+      return new StoredTransactions(
+          new JournaledTransactionRepository(journal, store), recovery.lastCreatedAt());
+    }
+    TransactionRepository archive = newTransactionStore(properties, "archive");
+    // history reads wait for the archive, so they only start once it is compacted as well
+    CompletableFuture<Void> archiveLoaded =
+        JournalRecovery.backfillHistory(journal, recovery.snapshotSequence(), archive)
+            .thenRun(
+                () -> {
+                  try {
+                    compactReplayed(archive);
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+    return new StoredTransactions(
+        new JournaledTransactionRepository(journal, store, archive, archiveLoaded),
+        recovery.lastCreatedAt());
+  }
+
+  /**
+   * Replayed transactions all land in the hot tier of a tiered store, however old they are, so
+   * those past its retention are moved to cold segments straight away.
+   */
+  private static void compactReplayed(TransactionRepository store) throws IOException {
+    if (store instanceof TieredTransactionRepository tiered) {
+      tiered.compact(Instant.now());
+    }
+  }
+
+  /** Gauges of what the stores hold, read only when metrics are scraped. */
+  @Bean
+  MeterBinder repositoryMetrics(
+      BalanceRepository balanceRepository, TransactionRepository transactionRepository) {
+    return registry -> {
+      Gauge.builder("ledger.repository.accounts", balanceRepository, BalanceRepository::size)
+          .description("Accounts with a stored balance")
+          .register(registry);
+      Gauge.builder(
+              "ledger.repository.transactions", transactionRepository, TransactionRepository::size)
+          .description("Transactions stored across all accounts")
+          .register(registry);
+      if (balanceRepository instanceof OffHeapBalanceRepository offHeap) {
+        Gauge.builder(
+                "ledger.repository.off.heap", offHeap, OffHeapBalanceRepository::capacityBytes)
+            .description("Off-heap memory reserved by the balance table")
+            .baseUnit("bytes")
+            .register(registry);
+      }
+    };
+  }
+
+  /**
+   * @param name distinguishes the stores of one application, so tiered stores get their own
+   *     directory
+   */
+  private static TransactionRepository newTransactionStore(LedgerProperties properties, String name)
+      throws IOException {
+    LedgerProperties.Tiering tiering = properties.repository().tiering();
+    return switch (properties.repository().transactionStore()) {
+      case LIST -> new ListTransactionRepository(new ArrayList<>());
+      case PARTITIONED -> new PartitionedTransactionRepository(new ConcurrentHashMap<>());
+      case COLUMNAR -> new ColumnarTransactionRepository(new ConcurrentHashMap<>());
+      case TIERED ->
+          new TieredTransactionRepository(
+              tiering.directory().resolve(name),
+              tiering.hotRetention(),
+              tiering.bucket(),
+              tiering.compactionInterval());
+    };
   }
 }
@@ -0,0 +1,70 @@
+package com.example.ledger.config;
+
+import com.example.ledger.repository.TransactionRepository;
+import com.example.ledger.service.AccountLocks;
+import com.example.ledger.service.DirectPostingEngine;
+import com.example.ledger.service.IdempotencyCache;
+import com.example.ledger.service.LedgerClock;
+import com.example.ledger.service.PostingEngine;
+import com.example.ledger.service.RandomTransactionIdGenerator;
+import com.example.ledger.service.ShardedPostingEngine;
+import com.example.ledger.service.StatementAggregates;
+import com.example.ledger.service.SystemLedgerClock;
+import com.example.ledger.service.TimeOrderedTransactionIdGenerator;
+import com.example.ledger.service.TransactionIdGenerator;
+import com.example.ledger.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ServiceConfiguration {
+  @Bean
+  AccountLocks accountLocks(LedgerProperties properties, MeterRegistry meterRegistry) {
+    return new AccountLocks(properties.concurrency().lockStripes(), meterRegistry);
+  }
+
+  /** Seeded from recovery, so timestamps stay ahead of an earlier run's after a clock step back. */
+  @Bean
+  LedgerClock ledgerClock(RepositoryConfiguration.StoredTransactions storedTransactions) {
+    return new SystemLedgerClock(storedTransactions.lastCreatedAt());
+  }
+
+  @Bean
+  TransactionIdGenerator transactionIdGenerator(LedgerProperties properties) {
+    return switch (properties.ids().scheme()) {
+      case TIME_ORDERED -> new TimeOrderedTransactionIdGenerator();
+      case RANDOM -> new RandomTransactionIdGenerator();
+    };
+  }
+
+  @Bean
+  StatementAggregates statementAggregates(TransactionRepository transactionRepository) {
+    return new StatementAggregates(transactionRepository::getTransactions);
+  }
+
+  @Bean
+  IdempotencyCache idempotencyCache(LedgerProperties properties, MeterRegistry meterRegistry) {
+    LedgerProperties.Idempotency idempotency = properties.idempotency();
+    return new IdempotencyCache(
+        idempotency.maximumSize(), idempotency.timeToLive(), meterRegistry);
+  }
+
+  @Bean
+  PostingEngine postingEngine(
+      LedgerProperties properties,
+      TransactionService transactionService,
+      MeterRegistry meterRegistry) {
+    LedgerProperties.Engine engine = properties.engine();
+    return switch (engine.mode()) {
+      case DIRECT -> new DirectPostingEngine(transactionService);
+      case SHARDED ->
+          new ShardedPostingEngine(
+              transactionService,
+              engine.shardCount(),
+              engine.batch().maxSize(),
+              engine.batch().window(),
+              meterRegistry);
+    };
+  }
+}
@@ -0,0 +1,7 @@
+package com.example.ledger.exceptions;
+
+public class BalanceOverflowException extends RuntimeException {
+  public BalanceOverflowException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,7 @@
+package com.example.ledger.exceptions;
+
+public class InvalidTransferException extends RuntimeException {
+  public InvalidTransferException(String message) {
+    super(message);
+  }
+}
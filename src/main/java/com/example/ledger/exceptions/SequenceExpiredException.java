@@ -0,0 +1,7 @@
+package com.example.ledger.exceptions;
+
+public class SequenceExpiredException extends RuntimeException {
+  public SequenceExpiredException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,178 @@
+package com.example.ledger.feed;
+
+import com.example.ledger.exceptions.SequenceExpiredException;
+import com.example.ledger.models.Transaction;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Every stored transaction in the order it was stored, numbered by a global sequence, for
+ * downstream consumers to follow. The most recent {@code capacity} changes are kept in a ring that
+ * writers overwrite without waiting for anyone: a consumer that falls further behind than the ring
+ * holds loses its place and has to resynchronise from the history endpoints.
+ *
+ * <p>Writers take no lock and never wait for each other: each claims its sequence numbers from an
+ * atomic counter, writes its slots unless a later lap already did and then moves the last sequence
+ * past every slot written in order so far, its own or another writer's. Readers take no lock
+ * either: each slot carries its own sequence so a read of a slot that was overwritten meanwhile is
+ * detected. Only readers waiting for a change use a lock, and writers touch it only while someone
+ * waits.
+ */
+public class ChangeFeed {
+  private final AtomicReferenceArray<Change> slots;
+  private final long firstSequence;
+  private final AtomicLong claimedSequence;
+  private final AtomicLong lastSequence;
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition appended = lock.newCondition();
+
+  /** A transaction and its place in the feed. */
+  public record Change(long sequence, Transaction transaction) {}
+
+  /**
+   * @param capacity most recent changes kept for consumers that are behind
+   * @param firstSequence sequence number of the first change, so numbering can carry on from an
+   *     earlier run
+   */
+  public ChangeFeed(int capacity, long firstSequence) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.slots = new AtomicReferenceArray<>(capacity);
+    this.firstSequence = firstSequence;
+    this.claimedSequence = new AtomicLong(firstSequence - 1);
+    this.lastSequence = new AtomicLong(firstSequence - 1);
+  }
+
+  public void publish(Transaction transaction) {
+    store(claimedSequence.incrementAndGet(), transaction);
+    advance();
+  }
+
+  /** Publishes transactions in order, with consecutive sequence numbers. */
+  public void publishAll(List<Transaction> transactions) {
+    if (transactions.isEmpty()) {
+      return;
+    }
+    long sequence = claimedSequence.addAndGet(transactions.size()) - transactions.size();
+    for (Transaction transaction : transactions) {
+      store(++sequence, transaction);
+    }
+    advance();
+  }
+
+  /** Sequence number of the last change published, one less than the first if none was. */
+  public long lastSequence() {
+    return lastSequence.get();
+  }
+
+  /**
+   * Copies the changes following sequence {@code after} into {@code changes}, as many as are
+   * published and fit.
+   *
+   * @return the number of changes copied
+   * @throws SequenceExpiredException if some changes following {@code after} were already
+   *     overwritten, or {@code after} is beyond the last change, as when it comes from another run
+   */
+  public int read(long after, Change[] changes) {
+    long last = lastSequence.get();
+    requireRetained(after, last);
+    int count = (int) Math.max(0, Math.min(changes.length, last - after));
+    for (int i = 0; i < count; i++) {
+      long sequence = after + 1 + i;
+      Change change = slots.get(slot(sequence));
+      if (change.sequence() != sequence) {
+        throw new SequenceExpiredException("Changes after sequence " + after + " have expired");
+      }
+      changes[i] = change;
+    }
+    return count;
+  }
+
+  /**
+   * Waits until a change following sequence {@code after} is published.
+   *
+   * @return whether one was published before the timeout
+   */
+  public boolean awaitAfter(long after, Duration timeout) throws InterruptedException {
+    if (lastSequence.get() > after) {
+      return true;
+    }
+    long remainingNanos = timeout.toNanos();
+    // announce the wait before re-checking, so a writer that misses the check sees the waiter
+    waiting.incrementAndGet();
+    lock.lock();
+    try {
+      while (lastSequence.get() <= after) {
+        if (remainingNanos <= 0) {
+          return false;
+        }
+        remainingNanos = appended.awaitNanos(remainingNanos);
+      }
+      return true;
+    } finally {
+      lock.unlock();
+      waiting.decrementAndGet();
+    }
+  }
+
+  private void store(long sequence, Transaction transaction) {
+    int slot = slot(sequence);
+    Change change = new Change(sequence, transaction);
+    Change current = slots.get(slot);
+    // a writer that stalled while a whole lap was published must not put its change back over a
+    // newer one, which the last sequence could not move past; its change has expired anyway
+    while (current == null || current.sequence() < sequence) {
+      if (slots.compareAndSet(slot, current, change)) {
+        return;
+      }
+      current = slots.get(slot);
+    }
+  }
+
+  private void advance() {
+    long last = lastSequence.get();
+    while (true) {
+      Change next = slots.get(slot(last + 1));
+      // a slot still holding an older lap is not written yet; a newer lap was written and then
+      // overwritten, which readers report as expired
+      if (next == null || next.sequence() <= last) {
+        break;
+      }
+      if (lastSequence.compareAndSet(last, last + 1)) {
+        last++;
+      } else {
+        last = lastSequence.get();
+      }
+    }
+    if (waiting.get() > 0) {
+      lock.lock();
+      try {
+        appended.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private void requireRetained(long after, long last) {
+    if (after > last) {
+      throw new SequenceExpiredException(
+          "Sequence " + after + " is beyond the last change " + last + " of this feed");
+    }
+    long oldest = Math.max(firstSequence, last - slots.length() + 1);
+    if (after < oldest - 1) {
+      throw new SequenceExpiredException("Changes after sequence " + after + " have expired");
+    }
+  }
+
+  private int slot(long sequence) {
+    return (int) Math.floorMod(sequence, (long) slots.length());
+  }
+}
@@ -0,0 +1,11 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.models.Balance;
+
+/**
+ * An account's balance as of a journal position.
+ *
+ * @param balance the balance after the account's last transaction in the journal
+ * @param sequence journal sequence number of that transaction
+ */
+public record BalanceCheckpoint(Balance balance, long sequence) {}
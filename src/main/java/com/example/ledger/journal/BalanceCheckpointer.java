@@ -0,0 +1,82 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.models.Balance;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically writes a balance snapshot without touching the live repositories: it starts from the
+ * previous snapshot and folds in the journal records appended since, so writers are never blocked
+ * and every snapshot is exact as of its sequence number.
+ */
+public class BalanceCheckpointer implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(BalanceCheckpointer.class);
+
+  private final TransactionJournal journal;
+  private final BalanceSnapshotStore snapshotStore;
+  private final ScheduledExecutorService scheduler;
+
+  public BalanceCheckpointer(
+      TransactionJournal journal, BalanceSnapshotStore snapshotStore, Duration interval) {
+    this.journal = journal;
+    this.snapshotStore = snapshotStore;
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "ledger-checkpointer");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long intervalNanos = interval.toNanos();
+    scheduler.scheduleWithFixedDelay(
+        this::checkpointQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Writes a snapshot as of the current end of the journal, unless nothing was appended since the
+   * last one.
+   *
+   * @return the sequence number of the newest snapshot
+   */
+  public long checkpoint() throws IOException {
+    BalanceSnapshotStore.Snapshot previous =
+        snapshotStore.loadLatest().orElseGet(BalanceSnapshotStore.Snapshot::empty);
+    long sequence = journal.nextSequence();
+    if (sequence == previous.sequence()) {
+      return sequence;
+    }
+    Map<UUID, BalanceCheckpoint> balances = previous.balances();
+    journal.replay(
+        previous.sequence(),
+        sequence,
+        (transaction, transactionSequence) ->
+            balances.put(
+                transaction.accountId(),
+                new BalanceCheckpoint(
+                    new Balance(transaction.balance(), transaction.createdAt()),
+                    transactionSequence)));
+    snapshotStore.write(sequence, balances);
+    return sequence;
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdown();
+  }
+
+  private void checkpointQuietly() {
+    try {
+      checkpoint();
+    } catch (IOException | UncheckedIOException e) {
+      log.warn("Could not write balance snapshot", e);
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.models.Balance;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot files of every account balance, each named after the journal sequence number it was
+ * taken at: the snapshot reflects exactly the records before that sequence number.
+ *
+ * <p>File layout: {@code [int magic][int version][long sequence][int count]}, then per account
+ * {@code [long id msb][long id lsb][long amount][long epoch second][int nano][int offset seconds]
+ * [long sequence]}, followed by a CRC32C of everything before it. Version 1 files, with an int
+ * amount, are still read.
+ */
+public class BalanceSnapshotStore {
+  private static final int MAGIC = 0x4c534e50; // "LSNP"
+  private static final int VERSION = 2;
+  private static final int INT_AMOUNT_VERSION = 1;
+  private static final String PREFIX = "snapshot-";
+  private static final String SUFFIX = ".bin";
+
+  private final Path directory;
+  private final int retained;
+
+  public BalanceSnapshotStore(Path directory, int retained) throws IOException {
+    if (retained < 1) {
+      throw new IllegalArgumentException("At least one snapshot must be retained");
+    }
+    this.directory = Files.createDirectories(directory);
+    this.retained = retained;
+  }
+
+  /** A snapshot read back from disk. */
+  public record Snapshot(long sequence, Map<UUID, BalanceCheckpoint> balances) {
+    static Snapshot empty() {
+      return new Snapshot(0, new HashMap<>());
+    }
+  }
+
+  /** Returns the newest snapshot that is intact, skipping any that are truncated or corrupt. */
+  public Optional<Snapshot> loadLatest() throws IOException {
+    List<Path> files = snapshotFiles();
+    for (int i = files.size() - 1; i >= 0; i--) {
+      Optional<Snapshot> snapshot = read(files.get(i));
+      if (snapshot.isPresent()) {
+        return snapshot;
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Writes a snapshot atomically: to a temporary file that is forced to disk and then renamed.
+   * Older snapshots beyond the retained count are deleted afterwards.
+   */
+  public void write(long sequence, Map<UUID, BalanceCheckpoint> balances) throws IOException {
+    Path target = directory.resolve(PREFIX + "%020d".formatted(sequence) + SUFFIX);
+    Path temporary = directory.resolve(target.getFileName() + ".tmp");
+    CRC32C checksum = new CRC32C();
+    try (OutputStream file = Files.newOutputStream(temporary);
+        DataOutputStream output =
+            new DataOutputStream(
+                new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), checksum))) {
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      output.writeLong(sequence);
+      output.writeInt(balances.size());
+      for (Map.Entry<UUID, BalanceCheckpoint> entry : balances.entrySet()) {
+        Balance balance = entry.getValue().balance();
+        long updatedAt = balance.updatedAt();
+        output.writeLong(entry.getKey().getMostSignificantBits());
+        output.writeLong(entry.getKey().getLeastSignificantBits());
+        output.writeLong(balance.amount());
+        // epoch seconds, nanos and a zero UTC offset, the layout of older snapshots
+        output.writeLong(Math.floorDiv(updatedAt, 1_000_000));
+        output.writeInt((int) Math.floorMod(updatedAt, 1_000_000) * 1_000);
+        output.writeInt(0);
+        output.writeLong(entry.getValue().sequence());
+      }
+      // the checksum covers everything written so far, so it bypasses the checked stream
+      output.flush();
+      new DataOutputStream(file).writeInt((int) checksum.getValue());
+    }
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+    Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+    deleteExpired();
+  }
+
+  private Optional<Snapshot> read(Path path) throws IOException {
+    CRC32C checksum = new CRC32C();
+    try (InputStream file = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+        DataInputStream input = new DataInputStream(new CheckedInputStream(file, checksum))) {
+      if (input.readInt() != MAGIC) {
+        return Optional.empty();
+      }
+      int version = input.readInt();
+      if (version != VERSION && version != INT_AMOUNT_VERSION) {
+        return Optional.empty();
+      }
+      long sequence = input.readLong();
+      int count = input.readInt();
+      Map<UUID, BalanceCheckpoint> balances = HashMap.newHashMap(count);
+      for (int i = 0; i < count; i++) {
+        UUID accountId = new UUID(input.readLong(), input.readLong());
+        long amount = version == INT_AMOUNT_VERSION ? input.readInt() : input.readLong();
+        long updatedAt = input.readLong() * 1_000_000 + input.readInt() / 1_000;
+        input.readInt();
+        Balance balance = new Balance(amount, updatedAt);
+        balances.put(accountId, new BalanceCheckpoint(balance, input.readLong()));
+      }
+      int expected = (int) checksum.getValue();
+      if (new DataInputStream(file).readInt() != expected) {
+        return Optional.empty();
+      }
+      return Optional.of(new Snapshot(sequence, balances));
+    } catch (EOFException e) {
+      return Optional.empty();
+    }
+  }
+
+  private void deleteExpired() throws IOException {
+    List<Path> files = snapshotFiles();
+    for (int i = 0; i < files.size() - retained; i++) {
+      Files.deleteIfExists(files.get(i));
+    }
+  }
+
+  private List<Path> snapshotFiles() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(path -> path.getFileName().toString().startsWith(PREFIX))
+          .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+          .sorted()
+          .toList();
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package com.example.ledger.journal;
+
+/** When appended journal records are forced to the storage device. */
+public enum FsyncPolicy {
+  /** After every record, before the append returns. */
+  PER_WRITE,
+  /** Once per append call, so a batch of records costs a single fsync. */
+  PER_BATCH,
+  /** Periodically from a background thread; a crash may lose the last interval of writes. */
+  INTERVAL
+}
@@ -0,0 +1,105 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.models.Balance;
+import com.example.ledger.models.Transaction;
+import com.example.ledger.repository.BalanceRepository;
+import com.example.ledger.repository.TransactionRepository;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/** Rebuilds the in-memory repositories from the journal at startup. */
+public final class JournalRecovery {
+  private JournalRecovery() {}
+
+  /**
+   * @param snapshotSequence sequence number of the snapshot recovery started from, zero if none
+   * @param replayed number of journal records replayed after the snapshot
+   * @param lastCreatedAt newest creation time recovered, from the snapshot or the journal, in epoch
+   *     microseconds; {@link Long#MIN_VALUE} if nothing was recovered
+   */
+  public record Result(long snapshotSequence, long replayed, long lastCreatedAt) {}
+
+  /**
+   * Replays the whole journal into the repositories. Every transaction carries the balance after it
+   * was applied, so the last one of each account is that account's current balance.
+   *
+   * @return the number of transactions replayed
+   */
+  public static long recover(
+      TransactionJournal journal,
+      TransactionRepository transactionRepository,
+      BalanceRepository balanceRepository) {
+    return replay(journal, 0, Long.MIN_VALUE, transactionRepository, balanceRepository)
+        .replayed();
+  }
+
+  /**
+   * Loads the newest balance snapshot and replays only the journal records after it, so recovery
+   * time is bounded by the snapshot interval rather than the size of the ledger. Transactions older
+   * than the snapshot are not added to {@code transactionRepository}; see {@link #backfillHistory}.
+   */
+  public static Result recover(
+      TransactionJournal journal,
+      BalanceSnapshotStore snapshotStore,
+      TransactionRepository transactionRepository,
+      BalanceRepository balanceRepository)
+      throws IOException {
+    BalanceSnapshotStore.Snapshot snapshot =
+        snapshotStore.loadLatest().orElseGet(BalanceSnapshotStore.Snapshot::empty);
+    long lastCreatedAt = Long.MIN_VALUE;
+    for (var entry : snapshot.balances().entrySet()) {
+      Balance balance = entry.getValue().balance();
+      balanceRepository.saveBalance(entry.getKey(), balance);
+      lastCreatedAt = Math.max(lastCreatedAt, balance.updatedAt());
+    }
+    return replay(
+        journal, snapshot.sequence(), lastCreatedAt, transactionRepository, balanceRepository);
+  }
+
+  /**
+   * Loads the transactions before {@code toSequence} into {@code archive} on a background thread,
+   * completing the history that a snapshot-based recovery skipped.
+   */
+  public static CompletableFuture<Void> backfillHistory(
+      TransactionJournal journal, long toSequence, TransactionRepository archive) {
+    CompletableFuture<Void> loaded = new CompletableFuture<>();
+    Thread thread =
+        new Thread(
+            () -> {
+              try {
+                journal.replay(
+                    0, toSequence, (transaction, sequence) -> archive.addTransaction(transaction));
+                loaded.complete(null);
+              } catch (RuntimeException e) {
+                loaded.completeExceptionally(e);
+              }
+            },
+            "ledger-history-backfill");
+    thread.setDaemon(true);
+    thread.start();
+    return loaded;
+  }
+
+  private static Result replay(
+      TransactionJournal journal,
+      long fromSequence,
+      long lastCreatedAt,
+      TransactionRepository transactionRepository,
+      BalanceRepository balanceRepository) {
+    long[] replayed = new long[1];
+    long[] last = {lastCreatedAt};
+    journal.replay(
+        fromSequence,
+        (transaction, sequence) -> {
+          transactionRepository.addTransaction(transaction);
+          balanceRepository.saveBalance(transaction.accountId(), balanceAfter(transaction));
+          replayed[0]++;
+          last[0] = Math.max(last[0], transaction.createdAt());
+        });
+    return new Result(fromSequence, replayed[0], last[0]);
+  }
+
+  private static Balance balanceAfter(Transaction transaction) {
+    return new Balance(transaction.balance(), transaction.createdAt());
+  }
+}
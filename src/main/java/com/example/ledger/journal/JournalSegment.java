@@ -0,0 +1,165 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.models.Transaction;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-size, memory-mapped journal file. Records are laid out back to back as {@code [int
+ * length][int crc32c][payload]}; the zero-filled remainder of the file marks the end of the log.
+ */
+final class JournalSegment {
+  static final int HEADER_SIZE = 8;
+  static final int RECORD_SIZE = HEADER_SIZE + TransactionCodec.ENCODED_SIZE;
+
+  private final Path path;
+  private final long baseSequence;
+  private final MappedByteBuffer buffer;
+  private final CRC32C checksum = new CRC32C();
+  private long nextSequence;
+  private int syncedPosition;
+
+  private JournalSegment(Path path, long baseSequence, MappedByteBuffer buffer) {
+    this.path = path;
+    this.baseSequence = baseSequence;
+    this.buffer = buffer;
+    this.nextSequence = baseSequence;
+  }
+
+  static JournalSegment open(Path path, long baseSequence, int size) throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      // the mapping stays valid after the channel is closed
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      return new JournalSegment(path, baseSequence, buffer);
+    }
+  }
+
+  Path path() {
+    return path;
+  }
+
+  long baseSequence() {
+    return baseSequence;
+  }
+
+  long nextSequence() {
+    return nextSequence;
+  }
+
+  /** Appends a record, or returns {@code false} when the segment has no room left for it. */
+  boolean append(Transaction transaction) {
+    int start = buffer.position();
+    if (buffer.remaining() < RECORD_SIZE) {
+      return false;
+    }
+    buffer.position(start + HEADER_SIZE);
+    TransactionCodec.encode(transaction, buffer);
+    int length = buffer.position() - start - HEADER_SIZE;
+
+    checksum.reset();
+    checksum.update(buffer.slice(start + HEADER_SIZE, length));
+    buffer.putInt(start + 4, (int) checksum.getValue());
+    // the length goes in last: a record is only visible to recovery once it is complete
+    buffer.putInt(start, length);
+    nextSequence++;
+    return true;
+  }
+
+  /** Forces everything appended since the last call to the storage device. */
+  void force() {
+    int position = buffer.position();
+    if (position > syncedPosition) {
+      buffer.force(syncedPosition, position - syncedPosition);
+      syncedPosition = position;
+    }
+  }
+
+  /**
+   * Passes every intact record with a sequence number in {@code [fromSequence, toSequence)} to the
+   * consumer. Safe to call while another thread appends, as long as {@code toSequence} was read
+   * from {@link #nextSequence()} under the journal lock: those records are complete and visible.
+   */
+  void replay(long fromSequence, long toSequence, ObjLongConsumer<Transaction> consumer) {
+    scan(fromSequence, toSequence, consumer);
+  }
+
+  /**
+   * Positions the segment after its last intact record, so a torn tail left by a crash is
+   * overwritten by the next append.
+   */
+  void recover() {
+    long[] records = new long[1];
+    int position = scan(0, Long.MAX_VALUE, (transaction, sequence) -> records[0]++);
+    wipeTail(position);
+    buffer.position(position);
+    syncedPosition = position;
+    nextSequence = baseSequence + records[0];
+  }
+
+  // returns the position after the last record scanned
+  private int scan(long fromSequence, long toSequence, ObjLongConsumer<Transaction> consumer) {
+    // a checksum of its own, as appends may run concurrently
+    CRC32C recordChecksum = new CRC32C();
+    int position = 0;
+    long sequence = baseSequence;
+    while (sequence < toSequence && position + HEADER_SIZE <= buffer.capacity()) {
+      int length = buffer.getInt(position);
+      if (length <= 0 || position + HEADER_SIZE + length > buffer.capacity()) {
+        break;
+      }
+      recordChecksum.reset();
+      recordChecksum.update(buffer.slice(position + HEADER_SIZE, length));
+      if ((int) recordChecksum.getValue() != buffer.getInt(position + 4)) {
+        break;
+      }
+      if (sequence >= fromSequence) {
+        consumer.accept(
+            TransactionCodec.decode(
+                buffer.slice(position + HEADER_SIZE, length).order(ByteOrder.LITTLE_ENDIAN)),
+            sequence);
+      }
+      position += HEADER_SIZE + length;
+      sequence++;
+    }
+    return position;
+  }
+
+  /**
+   * Zeroes everything a crash left after the last intact record, up to the end of the segment, and
+   * forces it to disk before anything is appended. Records appended later land exactly on top of
+   * stale ones, so any stale record left behind would be replayed after the next crash. A run of
+   * zeroes does not mark the end of stale data: with {@link FsyncPolicy#INTERVAL}, a page that
+   * never reached the disk can sit between pages that did.
+   */
+  private void wipeTail(int from) {
+    int firstWiped = -1;
+    int lastWiped = -1;
+    int i = from;
+    for (; i + Long.BYTES <= buffer.capacity(); i += Long.BYTES) {
+      if (buffer.getLong(i) != 0) {
+        buffer.putLong(i, 0);
+        firstWiped = firstWiped < 0 ? i : firstWiped;
+        lastWiped = i + Long.BYTES;
+      }
+    }
+    for (; i < buffer.capacity(); i++) {
+      if (buffer.get(i) != 0) {
+        buffer.put(i, (byte) 0);
+        firstWiped = firstWiped < 0 ? i : firstWiped;
+        lastWiped = i + 1;
+      }
+    }
+    if (firstWiped >= 0) {
+      buffer.force(firstWiped, lastWiped - firstWiped);
+    }
+  }
+}
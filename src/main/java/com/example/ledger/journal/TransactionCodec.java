@@ -0,0 +1,61 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.models.Transaction;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Fixed-size little-endian binary encoding of a {@link Transaction}. The creation time keeps the
+ * layout of journals written when it was an {@code OffsetDateTime}: epoch seconds, nanos and a UTC
+ * offset, which is always zero now and ignored on read. Records of journals written before amounts
+ * were 64-bit hold the amount and balance as ints, and those written before transfers also lack the
+ * transfer id; both are told apart by their length.
+ */
+final class TransactionCodec {
+  static final int ENCODED_SIZE = 16 + 16 + 1 + 8 + 8 + 8 + 4 + 4 + 16;
+
+  private static final int INT_AMOUNTS_ENCODED_SIZE = ENCODED_SIZE - 2 * Integer.BYTES;
+
+  private static final int NO_TRANSFER_ENCODED_SIZE = INT_AMOUNTS_ENCODED_SIZE - 2 * Long.BYTES;
+
+  private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+
+  private TransactionCodec() {}
+
+  static void encode(Transaction transaction, ByteBuffer buffer) {
+    buffer.putLong(transaction.id().getMostSignificantBits());
+    buffer.putLong(transaction.id().getLeastSignificantBits());
+    buffer.putLong(transaction.accountId().getMostSignificantBits());
+    buffer.putLong(transaction.accountId().getLeastSignificantBits());
+    buffer.put((byte) transaction.type().ordinal());
+    buffer.putLong(transaction.amount());
+    buffer.putLong(transaction.balance());
+    long createdAt = transaction.createdAt();
+    buffer.putLong(Math.floorDiv(createdAt, 1_000_000));
+    buffer.putInt((int) Math.floorMod(createdAt, 1_000_000) * 1_000);
+    buffer.putInt(0);
+    // the nil UUID stands for no transfer, random transfer ids are never nil
+    UUID transferId = transaction.transferId();
+    buffer.putLong(transferId == null ? 0 : transferId.getMostSignificantBits());
+    buffer.putLong(transferId == null ? 0 : transferId.getLeastSignificantBits());
+  }
+
+  /** Decodes a whole record, {@code buffer} holding exactly its bytes. */
+  static Transaction decode(ByteBuffer buffer) {
+    boolean noTransfer = buffer.remaining() == NO_TRANSFER_ENCODED_SIZE;
+    boolean intAmounts = noTransfer || buffer.remaining() == INT_AMOUNTS_ENCODED_SIZE;
+    UUID id = new UUID(buffer.getLong(), buffer.getLong());
+    UUID accountId = new UUID(buffer.getLong(), buffer.getLong());
+    Transaction.TransactionType type = TYPES[buffer.get()];
+    long amount = intAmounts ? buffer.getInt() : buffer.getLong();
+    long balance = intAmounts ? buffer.getInt() : buffer.getLong();
+    long createdAt = buffer.getLong() * 1_000_000 + buffer.getInt() / 1_000;
+    buffer.getInt();
+    UUID transferId = noTransfer ? null : transferId(buffer.getLong(), buffer.getLong());
+    return new Transaction(id, accountId, amount, type, balance, createdAt, transferId);
+  }
+
+  private static UUID transferId(long high, long low) {
+    return high == 0 && low == 0 ? null : new UUID(high, low);
+  }
+}
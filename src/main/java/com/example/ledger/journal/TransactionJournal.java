@@ -0,0 +1,220 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.models.Transaction;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Durable append-only log of transactions, stored in fixed-size memory-mapped segment files named
+ * after the sequence number of their first record. Every record gets a global, gap-free sequence
+ * number starting at zero.
+ */
+public class TransactionJournal implements AutoCloseable {
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".log";
+
+  private final Path directory;
+  private final int segmentSize;
+  private final FsyncPolicy fsyncPolicy;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final List<JournalSegment> segments;
+  private final ScheduledExecutorService flusher;
+  private JournalSegment active;
+
+  private TransactionJournal(
+      Path directory,
+      int segmentSize,
+      FsyncPolicy fsyncPolicy,
+      Duration fsyncInterval,
+      List<JournalSegment> segments) {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.fsyncPolicy = fsyncPolicy;
+    this.segments = segments;
+    this.active = segments.get(segments.size() - 1);
+    if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+      flusher =
+          Executors.newSingleThreadScheduledExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, "ledger-journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+              });
+      long intervalNanos = fsyncInterval.toNanos();
+      flusher.scheduleWithFixedDelay(
+          this::sync, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    } else {
+      flusher = null;
+    }
+  }
+
+  /**
+   * Opens the journal in {@code directory}, creating it if needed, positioned after the last intact
+   * record.
+   */
+  public static TransactionJournal open(
+      Path directory, int segmentSize, FsyncPolicy fsyncPolicy, Duration fsyncInterval)
+      throws IOException {
+    if (segmentSize < JournalSegment.RECORD_SIZE) {
+      throw new IllegalArgumentException("Segment size must fit at least one record");
+    }
+    Files.createDirectories(directory);
+    List<JournalSegment> segments = new ArrayList<>();
+    for (Path path : segmentFiles(directory)) {
+      segments.add(JournalSegment.open(path, baseSequence(path), segmentSize));
+    }
+    if (segments.isEmpty()) {
+      segments.add(JournalSegment.open(segmentPath(directory, 0), 0, segmentSize));
+    }
+    // find where the previous run stopped writing
+    segments.get(segments.size() - 1).recover();
+    return new TransactionJournal(directory, segmentSize, fsyncPolicy, fsyncInterval, segments);
+  }
+
+  /** Appends a transaction and returns its sequence number. */
+  public long append(Transaction transaction) {
+    lock.lock();
+    try {
+      long sequence = write(transaction);
+      if (fsyncPolicy != FsyncPolicy.INTERVAL) {
+        active.force();
+      }
+      return sequence;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Appends transactions in order and returns the sequence number of the last one. */
+  public long appendAll(List<Transaction> transactions) {
+    lock.lock();
+    try {
+      long sequence = active.nextSequence() - 1;
+      for (Transaction transaction : transactions) {
+        sequence = write(transaction);
+        if (fsyncPolicy == FsyncPolicy.PER_WRITE) {
+          active.force();
+        }
+      }
+      if (fsyncPolicy == FsyncPolicy.PER_BATCH) {
+        active.force();
+      }
+      return sequence;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Passes every record from sequence number {@code fromSequence} on to the consumer, in order. */
+  public void replay(long fromSequence, ObjLongConsumer<Transaction> consumer) {
+    replay(fromSequence, Long.MAX_VALUE, consumer);
+  }
+
+  /**
+   * Passes the records with sequence numbers in {@code [fromSequence, toSequence)} to the consumer,
+   * in order. Records appended while the replay runs are not included. Appends are not blocked, so
+   * this can run alongside live traffic.
+   */
+  public void replay(long fromSequence, long toSequence, ObjLongConsumer<Transaction> consumer) {
+    List<JournalSegment> snapshot;
+    long end;
+    lock.lock();
+    try {
+      snapshot = List.copyOf(segments);
+      end = Math.min(toSequence, active.nextSequence());
+    } finally {
+      lock.unlock();
+    }
+    for (int i = 0; i < snapshot.size(); i++) {
+      JournalSegment segment = snapshot.get(i);
+      if (segment.baseSequence() >= end) {
+        break;
+      }
+      boolean last = i == snapshot.size() - 1;
+      if (!last && snapshot.get(i + 1).baseSequence() <= fromSequence) {
+        continue;
+      }
+      segment.replay(fromSequence, end, consumer);
+    }
+  }
+
+  /** Sequence number the next appended record will get. */
+  public long nextSequence() {
+    lock.lock();
+    try {
+      return active.nextSequence();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Forces all appended records to the storage device. */
+  public void sync() {
+    lock.lock();
+    try {
+      active.force();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (flusher != null) {
+      flusher.shutdown();
+    }
+    sync();
+  }
+
+  private long write(Transaction transaction) {
+    if (!active.append(transaction)) {
+      roll();
+      if (!active.append(transaction)) {
+        throw new IllegalStateException("Record does not fit in an empty journal segment");
+      }
+    }
+    return active.nextSequence() - 1;
+  }
+
+  private void roll() {
+    active.force();
+    long baseSequence = active.nextSequence();
+    try {
+      active = JournalSegment.open(segmentPath(directory, baseSequence), baseSequence, segmentSize);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not create journal segment", e);
+    }
+    segments.add(active);
+  }
+
+  private static List<Path> segmentFiles(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+          .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .sorted()
+          .toList();
+    }
+  }
+
+  private static Path segmentPath(Path directory, long baseSequence) {
+    return directory.resolve(SEGMENT_PREFIX + "%020d".formatted(baseSequence) + SEGMENT_SUFFIX);
+  }
+
+  private static long baseSequence(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(
+        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+  }
+}
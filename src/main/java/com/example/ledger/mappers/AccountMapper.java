@@ -1,9 +1,20 @@
 package com.example.ledger.mappers;
 
 import com.example.ledger.generated.model.BalanceResponse;
+import com.example.ledger.generated.model.PostingItem;
+import com.example.ledger.generated.model.SummaryBucket;
+import com.example.ledger.generated.model.SummaryPeriod;
 import com.example.ledger.generated.model.TransactionResponse;
+import com.example.ledger.generated.model.TransferResponse;
 import com.example.ledger.models.Balance;
+import com.example.ledger.models.Posting;
+import com.example.ledger.models.StatementAggregate;
+import com.example.ledger.models.StatementPeriod;
 import com.example.ledger.models.Transaction;
+import com.example.ledger.models.Transfer;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import org.mapstruct.Mapper;
 
 @Mapper(componentModel = "spring")
@@ -11,4 +22,26 @@ public interface AccountMapper {
   TransactionResponse toTransactionResponse(Transaction transaction);
 
   BalanceResponse toBalanceResponse(Balance balance);
+
+  Posting toPosting(PostingItem postingItem);
+
+  TransferResponse toTransferResponse(Transfer transfer);
+
+  StatementPeriod toStatementPeriod(SummaryPeriod period);
+
+  SummaryBucket toSummaryBucket(StatementAggregate aggregate);
+
+  /** Timestamps are kept as epoch microseconds and shown in UTC. */
+  default OffsetDateTime toOffsetDateTime(long epochMicros) {
+    return OffsetDateTime.ofInstant(
+        Instant.EPOCH.plusNanos(Math.multiplyExact(epochMicros, 1_000L)), ZoneOffset.UTC);
+  }
+
+  default Long toEpochMicros(OffsetDateTime dateTime) {
+    if (dateTime == null) {
+      return null;
+    }
+    return Math.addExact(
+        Math.multiplyExact(dateTime.toEpochSecond(), 1_000_000L), dateTime.getNano() / 1_000);
+  }
 }
@@ -1,5 +1,6 @@
 package com.example.ledger.models;
 
-import java.time.OffsetDateTime;
-
-public record Balance(Integer amount, OffsetDateTime updatedAt) {}
+/**
+ * @param updatedAt creation time of the transaction that set it, in epoch microseconds
+ */
+public record Balance(long amount, long updatedAt) {}
@@ -0,0 +1,14 @@
+package com.example.ledger.models;
+
+import java.util.UUID;
+
+/** A request to post an amount to an account, before it is applied to the balance. */
+public record Posting(UUID accountId, Transaction.TransactionType type, long amount) {
+  public static Posting deposit(UUID accountId, long amount) {
+    return new Posting(accountId, Transaction.TransactionType.DEPOSIT, amount);
+  }
+
+  public static Posting withdrawal(UUID accountId, long amount) {
+    return new Posting(accountId, Transaction.TransactionType.WITHDRAWAL, amount);
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.ledger.models;
+
+/** What became of one posting of a batch: the stored transaction, or the reason it was rejected. */
+public record PostingOutcome(Transaction transaction, RuntimeException failure) {
+  public static PostingOutcome posted(Transaction transaction) {
+    return new PostingOutcome(transaction, null);
+  }
+
+  public static PostingOutcome rejected(RuntimeException failure) {
+    return new PostingOutcome(null, failure);
+  }
+
+  public boolean isPosted() {
+    return failure == null;
+  }
+}
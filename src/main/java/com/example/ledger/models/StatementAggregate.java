@@ -0,0 +1,46 @@
+package com.example.ledger.models;
+
+import java.time.LocalDate;
+
+/**
+ * Totals of an account's transactions over one statement bucket.
+ *
+ * @param start first day of the bucket
+ * @param minBalance lowest balance after any transaction in the bucket
+ * @param maxBalance highest balance after any transaction in the bucket
+ */
+public record StatementAggregate(
+    LocalDate start,
+    long depositTotal,
+    int depositCount,
+    long withdrawalTotal,
+    int withdrawalCount,
+    long minBalance,
+    long maxBalance) {
+
+  /** The aggregate of a bucket holding only {@code transaction}. */
+  public static StatementAggregate of(LocalDate start, Transaction transaction) {
+    boolean deposit = transaction.type() == Transaction.TransactionType.DEPOSIT;
+    long amount = transaction.amount();
+    return new StatementAggregate(
+        start,
+        deposit ? amount : 0,
+        deposit ? 1 : 0,
+        deposit ? 0 : amount,
+        deposit ? 0 : 1,
+        transaction.balance(),
+        transaction.balance());
+  }
+
+  /** Combines two aggregates of the same bucket. */
+  public StatementAggregate plus(StatementAggregate other) {
+    return new StatementAggregate(
+        start,
+        depositTotal + other.depositTotal,
+        depositCount + other.depositCount,
+        withdrawalTotal + other.withdrawalTotal,
+        withdrawalCount + other.withdrawalCount,
+        Math.min(minBalance, other.minBalance),
+        Math.max(maxBalance, other.maxBalance));
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.ledger.models;
+
+import java.time.LocalDate;
+
+/** Length of the buckets account statements are aggregated into, in UTC calendar terms. */
+public enum StatementPeriod {
+  DAY,
+  MONTH;
+
+  /** First day of the bucket holding {@code date}. */
+  public LocalDate start(LocalDate date) {
+    return switch (this) {
+      case DAY -> date;
+      case MONTH -> date.withDayOfMonth(1);
+    };
+  }
+}
@@ -1,15 +1,26 @@
 package com.example.ledger.models;
 
-import java.time.OffsetDateTime;
 import java.util.UUID;
 
+/**
+ * @param createdAt when the transaction was applied, in epoch microseconds from the {@code
+ *     LedgerClock}, unique across the ledger
+ * @param transferId shared by the two legs of a transfer, {@code null} for plain deposits and
+ *     withdrawals
+ */
 public record Transaction(
     UUID id,
     UUID accountId,
-    Integer amount,
+    long amount,
     TransactionType type,
-    Integer balance,
-    OffsetDateTime createdAt) {
+    long balance,
+    long createdAt,
+    UUID transferId) {
+  public Transaction(
+      UUID id, UUID accountId, long amount, TransactionType type, long balance, long createdAt) {
+    this(id, accountId, amount, type, balance, createdAt, null);
+  }
+
   public enum TransactionType {
     DEPOSIT,
     WITHDRAWAL
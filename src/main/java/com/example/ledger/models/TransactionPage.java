@@ -0,0 +1,11 @@
+package com.example.ledger.models;
+
+import java.util.List;
+
+/**
+ * A page of an account's transaction history.
+ *
+ * @param nextPosition history position of the first transaction of the next page, or {@code null}
+ *     on the last page
+ */
+public record TransactionPage(List<Transaction> transactions, Integer nextPosition) {}
@@ -0,0 +1,6 @@
+package com.example.ledger.models;
+
+import java.util.UUID;
+
+/** Money moved between two accounts, recorded as a withdrawal and a deposit sharing its id. */
+public record Transfer(UUID id, Transaction debit, Transaction credit) {}
@@ -0,0 +1,36 @@
+package com.example.ledger.repository;
+
+import java.util.Arrays;
+
+/**
+ * Row numbers of a single account's transactions in {@link TransactionColumns}, in insertion order.
+ * Appends are serialized by the repository's append lock, while readers take a lock-free snapshot
+ * of the rows published so far.
+ */
+public final class AccountRows {
+  private static final int INITIAL_CAPACITY = 8;
+
+  private volatile int[] rows = new int[INITIAL_CAPACITY];
+  private volatile int size;
+
+  // callers must hold the repository's append lock
+  void append(int row) {
+    int[] current = rows;
+    int index = size;
+    if (index == current.length) {
+      current = Arrays.copyOf(current, index * 2);
+      rows = current;
+    }
+    current[index] = row;
+    // publishing the new size makes the row, and the columns written before it, visible
+    size = index + 1;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int[] rows() {
+    return rows;
+  }
+}
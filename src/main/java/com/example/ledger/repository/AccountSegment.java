@@ -0,0 +1,71 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Transaction;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only transaction history of a single account. Appends are serialized per segment, while
+ * readers take a lock-free snapshot of the entries published so far.
+ */
+public final class AccountSegment {
+  private static final int INITIAL_CAPACITY = 8;
+
+  private volatile Transaction[] entries = new Transaction[INITIAL_CAPACITY];
+  private volatile int size;
+  // a lock rather than a monitor, so appending from a virtual thread never pins its carrier
+  private final ReentrantLock appendLock = new ReentrantLock();
+
+  void append(Transaction transaction) {
+    appendLock.lock();
+    try {
+      Transaction[] current = entries;
+      int index = size;
+      if (index == current.length) {
+        current = Arrays.copyOf(current, index * 2);
+        entries = current;
+      }
+      current[index] = transaction;
+      // publishing the new size makes the entry visible to readers
+      size = index + 1;
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  List<Transaction> snapshot() {
+    // read the size first: any array published before it holds at least that many entries
+    int snapshotSize = size;
+    return new Snapshot(entries, snapshotSize);
+  }
+
+  private static final class Snapshot extends AbstractList<Transaction> implements RandomAccess {
+    private final Transaction[] entries;
+    private final int size;
+
+    private Snapshot(Transaction[] entries, int size) {
+      this.entries = entries;
+      this.size = size;
+    }
+
+    @Override
+    public Transaction get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      return entries[index];
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
@@ -5,19 +5,23 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
-public class BalanceRepository {
-  private final Map<UUID, Balance> accountBalance;
+public interface BalanceRepository {
+  Optional<Balance> getBalance(UUID accountId);
 
-  public BalanceRepository(Map<UUID, Balance> accountBalance) {
-    this.accountBalance = accountBalance;
+  /**
+   * Returns the account's balance amount, zero if it has none. Meant for read-heavy paths:
+   * implementations read it without allocating.
+   */
+  default long getAmount(UUID accountId) {
+    return getBalance(accountId).map(Balance::amount).orElse(0L);
   }
 
-  public Optional<Balance> getBalance(UUID accountId) {
-    return Optional.ofNullable(accountBalance.get(accountId));
-  }
+  Balance saveBalance(UUID accountId, Balance newBalance);
 
-  public Balance saveBalance(UUID accountId, Balance newBalance) {
-    accountBalance.put(accountId, newBalance);
-    return newBalance;
+  default void saveBalances(Map<UUID, Balance> newBalances) {
+    newBalances.forEach(this::saveBalance);
   }
+
+  /** Returns the number of accounts with a stored balance. */
+  long size();
 }
@@ -0,0 +1,266 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Transaction;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable file of transactions from one time bucket, memory-mapped read-only so its contents stay
+ * off the heap. Each account's transactions form a run, split into blocks of {@value #BLOCK_SIZE}
+ * rows. A block starts with absolute values and then stores each timestamp and balance as a varint
+ * delta from the previous row, so a row costs a few bytes next to its ids. The only heap-resident
+ * index is one offset and one starting timestamp per block.
+ *
+ * <p>Row layout: id (16 bytes), flags (type ordinal, plus a bit for a transfer id), amount
+ * (varint), balance and createdAt in epoch micros (zigzag varlongs), and the transfer id (16 bytes)
+ * when flagged.
+ */
+final class ColdSegment {
+  static final int BLOCK_SIZE = 64;
+
+  private static final int TRANSFER_FLAG = 0x80;
+  private static final Transaction.TransactionType[] TYPES =
+      Transaction.TransactionType.values();
+
+  private final ByteBuffer buffer;
+
+  private ColdSegment(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /**
+   * Writes the histories to a new segment file.
+   *
+   * @return the run of each account, in the same order
+   */
+  static Map<UUID, Run> write(Path file, Map<UUID, List<Transaction>> histories)
+      throws IOException {
+    Encoder encoder = new Encoder();
+    Map<UUID, int[]> blockOffsets = new LinkedHashMap<>();
+    Map<UUID, long[]> blockStarts = new LinkedHashMap<>();
+    histories.forEach(
+        (accountId, history) -> {
+          int blocks = (history.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+          int[] offsets = new int[blocks];
+          long[] starts = new long[blocks];
+          Transaction previous = null;
+          for (int i = 0; i < history.size(); i++) {
+            if (i % BLOCK_SIZE == 0) {
+              offsets[i / BLOCK_SIZE] = encoder.size;
+              starts[i / BLOCK_SIZE] = history.get(i).createdAt();
+              previous = null;
+            }
+            encoder.write(history.get(i), previous);
+            previous = history.get(i);
+          }
+          blockOffsets.put(accountId, offsets);
+          blockStarts.put(accountId, starts);
+        });
+
+    try (FileChannel channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      ByteBuffer contents = ByteBuffer.wrap(encoder.bytes, 0, encoder.size);
+      while (contents.hasRemaining()) {
+        channel.write(contents);
+      }
+      ColdSegment segment =
+          new ColdSegment(channel.map(FileChannel.MapMode.READ_ONLY, 0, encoder.size));
+      Map<UUID, Run> runs = new LinkedHashMap<>();
+      blockOffsets.forEach(
+          (accountId, offsets) ->
+              runs.put(
+                  accountId,
+                  new Run(
+                      segment,
+                      accountId,
+                      histories.get(accountId).size(),
+                      offsets,
+                      blockStarts.get(accountId))));
+      return runs;
+    }
+  }
+
+  /** Removes segment files left behind by an earlier run. */
+  static void deleteAll(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    try (var files = Files.newDirectoryStream(directory, "*.cold")) {
+      for (Path file : files) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  /** One account's transactions within a segment. */
+  static final class Run {
+    private final ColdSegment segment;
+    private final UUID accountId;
+    private final int size;
+    private final int[] blockOffsets;
+    // createdAt of the first row of each block
+    private final long[] blockStarts;
+
+    private Run(
+        ColdSegment segment, UUID accountId, int size, int[] blockOffsets, long[] blockStarts) {
+      this.segment = segment;
+      this.accountId = accountId;
+      this.size = size;
+      this.blockOffsets = blockOffsets;
+      this.blockStarts = blockStarts;
+    }
+
+    int size() {
+      return size;
+    }
+
+    long firstCreatedAt() {
+      return blockStarts[0];
+    }
+
+    /**
+     * Returns the last row created at or before {@code epochMicros}, which must not be before the
+     * first row. The block is found from the block starting timestamps, so only it is decoded.
+     */
+    Transaction lastAtOrBefore(long epochMicros) {
+      int low = 0;
+      int high = blockStarts.length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (blockStarts[middle] <= epochMicros) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      Transaction[] rows = readBlock(low - 1);
+      int row = rows.length - 1;
+      while (rows[row].createdAt() > epochMicros) {
+        row--;
+      }
+      return rows[row];
+    }
+
+    /** Decodes every row of a block. */
+    Transaction[] readBlock(int block) {
+      int rows = Math.min(BLOCK_SIZE, size - block * BLOCK_SIZE);
+      Transaction[] transactions = new Transaction[rows];
+      Decoder decoder = new Decoder(segment.buffer, blockOffsets[block]);
+      for (int row = 0; row < rows; row++) {
+        transactions[row] = decoder.read(accountId, row == 0);
+      }
+      return transactions;
+    }
+  }
+
+  private static final class Encoder {
+    private byte[] bytes = new byte[4096];
+    private int size;
+
+    private void write(Transaction transaction, Transaction previous) {
+      long balance = transaction.balance();
+      long createdAt = transaction.createdAt();
+      if (previous != null) {
+        balance -= previous.balance();
+        createdAt -= previous.createdAt();
+      }
+      UUID transferId = transaction.transferId();
+      writeUuid(transaction.id());
+      writeByte(transaction.type().ordinal() | (transferId == null ? 0 : TRANSFER_FLAG));
+      writeVarLong(transaction.amount());
+      writeVarLong(zigzag(balance));
+      writeVarLong(zigzag(createdAt));
+      if (transferId != null) {
+        writeUuid(transferId);
+      }
+    }
+
+    private void writeUuid(UUID uuid) {
+      writeLong(uuid.getMostSignificantBits());
+      writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private void writeLong(long value) {
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        writeByte((int) (value >>> shift));
+      }
+    }
+
+    private void writeVarLong(long value) {
+      while ((value & ~0x7FL) != 0) {
+        writeByte((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      writeByte((int) value);
+    }
+
+    private void writeByte(int value) {
+      if (size == bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.multiplyExact(bytes.length, 2));
+      }
+      bytes[size++] = (byte) value;
+    }
+
+    private static long zigzag(long value) {
+      return (value << 1) ^ (value >> 63);
+    }
+  }
+
+  private static final class Decoder {
+    private final ByteBuffer buffer;
+    private int position;
+    private long balance;
+    private long createdAt;
+
+    private Decoder(ByteBuffer buffer, int position) {
+      this.buffer = buffer;
+      this.position = position;
+    }
+
+    private Transaction read(UUID accountId, boolean first) {
+      UUID id = readUuid();
+      int flags = buffer.get(position++) & 0xFF;
+      long amount = readVarLong();
+      long balanceValue = unzigzag(readVarLong());
+      long createdAtValue = unzigzag(readVarLong());
+      balance = first ? balanceValue : balance + balanceValue;
+      createdAt = first ? createdAtValue : createdAt + createdAtValue;
+      UUID transferId = (flags & TRANSFER_FLAG) == 0 ? null : readUuid();
+      return new Transaction(
+          id, accountId, amount, TYPES[flags & ~TRANSFER_FLAG], balance, createdAt, transferId);
+    }
+
+    private UUID readUuid() {
+      long high = buffer.getLong(position);
+      long low = buffer.getLong(position + Long.BYTES);
+      position += 2 * Long.BYTES;
+      return new UUID(high, low);
+    }
+
+    private long readVarLong() {
+      long value = 0;
+      for (int shift = 0; ; shift += 7) {
+        byte next = buffer.get(position++);
+        value |= (long) (next & 0x7F) << shift;
+        if (next >= 0) {
+          return value;
+        }
+      }
+    }
+
+    private static long unzigzag(long value) {
+      return (value >>> 1) ^ -(value & 1);
+    }
+  }
+}
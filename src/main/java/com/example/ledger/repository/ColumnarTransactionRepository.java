@@ -0,0 +1,94 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Transaction;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps every transaction in shared primitive {@link TransactionColumns} plus a per-account list of
+ * row numbers. Histories are returned as views that build {@link Transaction} records only for the
+ * rows actually read. Appends share one append lock, which batched appends from the sharded engine
+ * take once per batch.
+ */
+public class ColumnarTransactionRepository implements TransactionRepository {
+  private final TransactionColumns columns = new TransactionColumns();
+  private final ReentrantLock appendLock = new ReentrantLock();
+  private final ConcurrentMap<UUID, AccountRows> accounts;
+
+  public ColumnarTransactionRepository(ConcurrentMap<UUID, AccountRows> accounts) {
+    this.accounts = accounts;
+  }
+
+  @Override
+  public Transaction addTransaction(Transaction transaction) {
+    addTransactions(List.of(transaction));
+    return transaction;
+  }
+
+  @Override
+  public void addTransactions(List<Transaction> transactions) {
+    // rows are indexed under the append lock so every account sees them in append order
+    appendLock.lock();
+    try {
+      int row = columns.appendAll(transactions);
+      for (Transaction transaction : transactions) {
+        accounts
+            .computeIfAbsent(transaction.accountId(), accountId -> new AccountRows())
+            .append(row++);
+      }
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  @Override
+  public List<Transaction> getTransactions(UUID accountId) {
+    AccountRows accountRows = accounts.get(accountId);
+    if (accountRows == null) {
+      return List.of();
+    }
+    // read the size first: any array published before it holds at least that many rows
+    int size = accountRows.size();
+    return new Rows(columns, accountRows.rows(), size);
+  }
+
+  @Override
+  public int countTransactions(UUID accountId) {
+    AccountRows accountRows = accounts.get(accountId);
+    return accountRows == null ? 0 : accountRows.size();
+  }
+
+  @Override
+  public long size() {
+    return columns.size();
+  }
+
+  private static final class Rows extends AbstractList<Transaction> implements RandomAccess {
+    private final TransactionColumns columns;
+    private final int[] rows;
+    private final int size;
+
+    private Rows(TransactionColumns columns, int[] rows, int size) {
+      this.columns = columns;
+      this.rows = rows;
+      this.size = size;
+    }
+
+    @Override
+    public Transaction get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      return columns.get(rows[index]);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
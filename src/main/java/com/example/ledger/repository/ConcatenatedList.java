@@ -0,0 +1,27 @@
+package com.example.ledger.repository;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/** Read-only view of two random-access lists, one after the other. */
+final class ConcatenatedList<E> extends AbstractList<E> implements RandomAccess {
+  private final List<E> first;
+  private final List<E> second;
+
+  ConcatenatedList(List<E> first, List<E> second) {
+    this.first = first;
+    this.second = second;
+  }
+
+  @Override
+  public E get(int index) {
+    int firstSize = first.size();
+    return index < firstSize ? first.get(index) : second.get(index - firstSize);
+  }
+
+  @Override
+  public int size() {
+    return first.size() + second.size();
+  }
+}
@@ -0,0 +1,127 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.journal.TransactionJournal;
+import com.example.ledger.models.Transaction;
+import com.example.ledger.models.TransactionPage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes every transaction to a durable {@link TransactionJournal} before adding it to an in-memory
+ * repository, which keeps serving all reads.
+ *
+ * <p>After a recovery from a snapshot, history older than the snapshot is loaded into a separate
+ * archive in the background. Reads of transaction history wait for that load to finish, while
+ * postings are accepted straight away.
+ */
+public class JournaledTransactionRepository implements TransactionRepository {
+  private final TransactionJournal journal;
+  private final TransactionRepository delegate;
+  private final TransactionRepository archive;
+  private final CompletableFuture<Void> archiveLoaded;
+
+  public JournaledTransactionRepository(
+      TransactionJournal journal, TransactionRepository delegate) {
+    this(journal, delegate, null, CompletableFuture.completedFuture(null));
+  }
+
+  public JournaledTransactionRepository(
+      TransactionJournal journal,
+      TransactionRepository delegate,
+      TransactionRepository archive,
+      CompletableFuture<Void> archiveLoaded) {
+    this.journal = journal;
+    this.delegate = delegate;
+    this.archive = archive;
+    this.archiveLoaded = archiveLoaded;
+  }
+
+  @Override
+  public Transaction addTransaction(Transaction transaction) {
+    journal.append(transaction);
+    return delegate.addTransaction(transaction);
+  }
+
+  @Override
+  public void addTransactions(List<Transaction> transactions) {
+    journal.appendAll(transactions);
+    delegate.addTransactions(transactions);
+  }
+
+  @Override
+  public List<Transaction> getTransactions(UUID accountId) {
+    if (archive == null) {
+      return delegate.getTransactions(accountId);
+    }
+    archiveLoaded.join();
+    List<Transaction> archived = archive.getTransactions(accountId);
+    List<Transaction> recent = delegate.getTransactions(accountId);
+    return archived.isEmpty() ? recent : new ConcatenatedList<>(archived, recent);
+  }
+
+  /**
+   * Positions run through the archived history first and then the recent one, so a page may start
+   * in the archive and carry on in the live store.
+   */
+  @Override
+  public TransactionPage getTransactions(
+      UUID accountId, int position, int limit, Long from, Long to) {
+    if (archive == null) {
+      return delegate.getTransactions(accountId, position, limit, from, to);
+    }
+    archiveLoaded.join();
+    int archived = archive.countTransactions(accountId);
+    if (position >= archived) {
+      return offset(
+          delegate.getTransactions(accountId, position - archived, limit, from, to), archived);
+    }
+    TransactionPage older = archive.getTransactions(accountId, position, limit, from, to);
+    if (older.nextPosition() != null) {
+      return older;
+    }
+    int remaining = limit - older.transactions().size();
+    if (remaining == 0) {
+      // the archive page is full, the next one starts in the live store if it holds any
+      boolean more = !delegate.getTransactions(accountId, 0, 1, from, to).transactions().isEmpty();
+      return new TransactionPage(older.transactions(), more ? archived : null);
+    }
+    TransactionPage recent = delegate.getTransactions(accountId, 0, remaining, from, to);
+    List<Transaction> transactions = new ArrayList<>(older.transactions());
+    transactions.addAll(recent.transactions());
+    return offset(new TransactionPage(transactions, recent.nextPosition()), archived);
+  }
+
+  /** The live store holds the newer transactions, so the archive only answers older instants. */
+  @Override
+  public Optional<Transaction> getTransactionAsOf(UUID accountId, long asOf) {
+    if (archive == null) {
+      return delegate.getTransactionAsOf(accountId, asOf);
+    }
+    archiveLoaded.join();
+    Optional<Transaction> recent = delegate.getTransactionAsOf(accountId, asOf);
+    return recent.isPresent() ? recent : archive.getTransactionAsOf(accountId, asOf);
+  }
+
+  @Override
+  public int countTransactions(UUID accountId) {
+    if (archive == null) {
+      return delegate.countTransactions(accountId);
+    }
+    archiveLoaded.join();
+    return archive.countTransactions(accountId) + delegate.countTransactions(accountId);
+  }
+
+  @Override
+  public long size() {
+    return archive == null ? delegate.size() : archive.size() + delegate.size();
+  }
+
+  private static TransactionPage offset(TransactionPage page, int archived) {
+    Integer nextPosition = page.nextPosition();
+    return new TransactionPage(
+        page.transactions(), nextPosition == null ? null : archived + nextPosition);
+  }
+}
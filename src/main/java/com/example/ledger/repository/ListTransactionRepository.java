@@ -0,0 +1,80 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Transaction;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps every transaction in a single shared list and filters it by account on read. The list is
+ * guarded by a read-write lock rather than monitors, so readers share it and virtual threads
+ * waiting for it never pin their carriers.
+ */
+public class ListTransactionRepository implements TransactionRepository {
+  private final List<Transaction> transactions;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  public ListTransactionRepository(List<Transaction> transactions) {
+    this.transactions = transactions;
+  }
+
+  @Override
+  public Transaction addTransaction(Transaction transaction) {
+    lock.writeLock().lock();
+    try {
+      transactions.add(transaction);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    return transaction;
+  }
+
+  @Override
+  public void addTransactions(List<Transaction> batch) {
+    lock.writeLock().lock();
+    try {
+      transactions.addAll(batch);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public List<Transaction> getTransactions(UUID accountId) {
+    lock.readLock().lock();
+    try {
+      return transactions.stream()
+          .filter(transaction -> transaction.accountId().equals(accountId))
+          .toList();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public int countTransactions(UUID accountId) {
+    int count = 0;
+    lock.readLock().lock();
+    try {
+      for (Transaction transaction : transactions) {
+        if (transaction.accountId().equals(accountId)) {
+          count++;
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return count;
+  }
+
+  @Override
+  public long size() {
+    lock.readLock().lock();
+    try {
+      return transactions.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+}
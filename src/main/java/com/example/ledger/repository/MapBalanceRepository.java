@@ -0,0 +1,41 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Balance;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+public class MapBalanceRepository implements BalanceRepository {
+  private final Map<UUID, Balance> accountBalance;
+
+  public MapBalanceRepository(Map<UUID, Balance> accountBalance) {
+    this.accountBalance = accountBalance;
+  }
+
+  @Override
+  public Optional<Balance> getBalance(UUID accountId) {
+    return Optional.ofNullable(accountBalance.get(accountId));
+  }
+
+  @Override
+  public long getAmount(UUID accountId) {
+    Balance balance = accountBalance.get(accountId);
+    return balance == null ? 0 : balance.amount();
+  }
+
+  @Override
+  public Balance saveBalance(UUID accountId, Balance newBalance) {
+    accountBalance.put(accountId, newBalance);
+    return newBalance;
+  }
+
+  @Override
+  public void saveBalances(Map<UUID, Balance> newBalances) {
+    accountBalance.putAll(newBalances);
+  }
+
+  @Override
+  public long size() {
+    return accountBalance.size();
+  }
+}
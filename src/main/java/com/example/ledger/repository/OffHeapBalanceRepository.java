@@ -0,0 +1,208 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Balance;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Balances in a fixed-capacity, open-addressing hash table outside the Java heap, so that tens of
+ * millions of accounts cost neither GC work nor per-account objects.
+ *
+ * <p>Every slot is five longs: a version, the two halves of the account id, the amount and the
+ * update time in epoch microseconds. The version doubles as a seqlock: it is zero while the slot is
+ * free, odd while a writer owns the slot and even once the slot is stable. Writers take a slot with
+ * a compare-and-set on the version; readers never lock and retry if the version moved while they
+ * read.
+ */
+public class OffHeapBalanceRepository implements BalanceRepository {
+  private static final VarHandle LONGS =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+  private static final int SLOT_BYTES = 40;
+  private static final int VERSION = 0;
+  private static final int KEY_HIGH = 8;
+  private static final int KEY_LOW = 16;
+  private static final int AMOUNT = 24;
+  private static final int UPDATED_AT = 32;
+
+  private static final double MAX_LOAD_FACTOR = 0.7;
+  // 2^24 slots per direct buffer keeps each one well below the 2GB buffer limit
+  private static final int CHUNK_SHIFT = 24;
+  private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+  private final ByteBuffer[] chunks;
+  private final long mask;
+  private final long maxSize;
+  private final LongAdder size = new LongAdder();
+
+  /**
+   * @param expectedAccounts accounts the table must hold; capacity is sized for a load factor of at
+   *     most 0.7 and does not grow
+   */
+  public OffHeapBalanceRepository(long expectedAccounts) {
+    long slots = Math.max(16, (long) Math.ceil(expectedAccounts / MAX_LOAD_FACTOR));
+    long capacity = Long.highestOneBit(slots - 1) << 1;
+    this.mask = capacity - 1;
+    this.maxSize = (long) (capacity * MAX_LOAD_FACTOR);
+
+    int chunkCount = (int) ((capacity + CHUNK_MASK) >>> CHUNK_SHIFT);
+    long slotsPerChunk = Math.min(capacity, 1L << CHUNK_SHIFT);
+    this.chunks = new ByteBuffer[chunkCount];
+    for (int i = 0; i < chunkCount; i++) {
+      chunks[i] =
+          ByteBuffer.allocateDirect(Math.toIntExact(slotsPerChunk * SLOT_BYTES))
+              .order(ByteOrder.nativeOrder());
+    }
+  }
+
+  @Override
+  public Optional<Balance> getBalance(UUID accountId) {
+    long slot = find(accountId.getMostSignificantBits(), accountId.getLeastSignificantBits());
+    if (slot < 0) {
+      return Optional.empty();
+    }
+    ByteBuffer chunk = chunk(slot);
+    int base = offset(slot);
+    while (true) {
+      long version = (long) LONGS.getAcquire(chunk, base + VERSION);
+      if ((version & 1) != 0) {
+        Thread.onSpinWait();
+        continue;
+      }
+      long amount = (long) LONGS.getOpaque(chunk, base + AMOUNT);
+      long updatedAt = (long) LONGS.getOpaque(chunk, base + UPDATED_AT);
+      VarHandle.loadLoadFence();
+      if ((long) LONGS.getVolatile(chunk, base + VERSION) == version) {
+        return Optional.of(new Balance(amount, updatedAt));
+      }
+    }
+  }
+
+  @Override
+  public long getAmount(UUID accountId) {
+    long slot = find(accountId.getMostSignificantBits(), accountId.getLeastSignificantBits());
+    if (slot < 0) {
+      return 0;
+    }
+    // a single aligned long is read whole, so the seqlock is only needed to pair it with the time
+    return (long) LONGS.getAcquire(chunk(slot), offset(slot) + AMOUNT);
+  }
+
+  @Override
+  public Balance saveBalance(UUID accountId, Balance newBalance) {
+    long high = accountId.getMostSignificantBits();
+    long low = accountId.getLeastSignificantBits();
+    long amount = newBalance.amount();
+    long updatedAt = newBalance.updatedAt();
+
+    long slot = mix(high, low) & mask;
+    for (long probes = 0; probes <= mask; probes++, slot = (slot + 1) & mask) {
+      ByteBuffer chunk = chunk(slot);
+      int base = offset(slot);
+      long version = (long) LONGS.getAcquire(chunk, base + VERSION);
+      if (version == 0) {
+        if (size.sum() >= maxSize) {
+          throw new IllegalStateException("Off-heap balance table is full");
+        }
+        if (LONGS.compareAndSet(chunk, base + VERSION, 0L, 1L)) {
+          LONGS.setOpaque(chunk, base + KEY_HIGH, high);
+          LONGS.setOpaque(chunk, base + KEY_LOW, low);
+          LONGS.setOpaque(chunk, base + AMOUNT, amount);
+          LONGS.setOpaque(chunk, base + UPDATED_AT, updatedAt);
+          LONGS.setRelease(chunk, base + VERSION, 2L);
+          size.increment();
+          return newBalance;
+        }
+        version = awaitClaimed(chunk, base);
+      } else if (version == 1) {
+        version = awaitClaimed(chunk, base);
+      }
+      if (keyEquals(chunk, base, high, low)) {
+        update(chunk, base, amount, updatedAt);
+        return newBalance;
+      }
+    }
+    throw new IllegalStateException("Off-heap balance table is full");
+  }
+
+  @Override
+  public long size() {
+    return size.sum();
+  }
+
+  /** Off-heap memory reserved by the table, in bytes. */
+  public long capacityBytes() {
+    return (mask + 1) * SLOT_BYTES;
+  }
+
+  private long find(long high, long low) {
+    long slot = mix(high, low) & mask;
+    for (long probes = 0; probes <= mask; probes++, slot = (slot + 1) & mask) {
+      ByteBuffer chunk = chunk(slot);
+      int base = offset(slot);
+      long version = (long) LONGS.getAcquire(chunk, base + VERSION);
+      if (version == 0) {
+        return -1;
+      }
+      if (version == 1) {
+        awaitClaimed(chunk, base);
+      }
+      if (keyEquals(chunk, base, high, low)) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  private static void update(ByteBuffer chunk, int base, long amount, long updatedAt) {
+    while (true) {
+      long version = (long) LONGS.getAcquire(chunk, base + VERSION);
+      if ((version & 1) == 0 && LONGS.compareAndSet(chunk, base + VERSION, version, version + 1)) {
+        LONGS.setOpaque(chunk, base + AMOUNT, amount);
+        LONGS.setOpaque(chunk, base + UPDATED_AT, updatedAt);
+        LONGS.setRelease(chunk, base + VERSION, version + 2);
+        return;
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  // a slot at version 1 is being claimed and its key is not written yet
+  private static long awaitClaimed(ByteBuffer chunk, int base) {
+    long version;
+    while ((version = (long) LONGS.getAcquire(chunk, base + VERSION)) == 1) {
+      Thread.onSpinWait();
+    }
+    return version;
+  }
+
+  private static boolean keyEquals(ByteBuffer chunk, int base, long high, long low) {
+    // keys never change once the slot is published, so plain reads are enough
+    return (long) LONGS.get(chunk, base + KEY_HIGH) == high
+        && (long) LONGS.get(chunk, base + KEY_LOW) == low;
+  }
+
+  private ByteBuffer chunk(long slot) {
+    return chunks[(int) (slot >>> CHUNK_SHIFT)];
+  }
+
+  private static int offset(long slot) {
+    return (int) (slot & CHUNK_MASK) * SLOT_BYTES;
+  }
+
+  // murmur3 finalizer, spreads the id bits over the whole table
+  private static long mix(long high, long low) {
+    long hash = high ^ Long.rotateLeft(low, 32);
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -0,0 +1,47 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Transaction;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps one append-only segment per account, so reads cost O(account history) and appends to
+ * different accounts never contend with each other.
+ */
+public class PartitionedTransactionRepository implements TransactionRepository {
+  private final ConcurrentMap<UUID, AccountSegment> segments;
+
+  public PartitionedTransactionRepository(ConcurrentMap<UUID, AccountSegment> segments) {
+    this.segments = segments;
+  }
+
+  @Override
+  public Transaction addTransaction(Transaction transaction) {
+    segments
+        .computeIfAbsent(transaction.accountId(), accountId -> new AccountSegment())
+        .append(transaction);
+    return transaction;
+  }
+
+  @Override
+  public List<Transaction> getTransactions(UUID accountId) {
+    AccountSegment segment = segments.get(accountId);
+    return segment == null ? List.of() : segment.snapshot();
+  }
+
+  @Override
+  public int countTransactions(UUID accountId) {
+    AccountSegment segment = segments.get(accountId);
+    return segment == null ? 0 : segment.size();
+  }
+
+  @Override
+  public long size() {
+    long size = 0;
+    for (AccountSegment segment : segments.values()) {
+      size += segment.size();
+    }
+    return size;
+  }
+}
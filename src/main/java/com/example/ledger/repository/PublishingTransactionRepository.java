@@ -0,0 +1,61 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.feed.ChangeFeed;
+import com.example.ledger.models.Transaction;
+import com.example.ledger.models.TransactionPage;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Publishes every transaction to a {@link ChangeFeed} once the delegate has stored it, so consumers
+ * never see a change that a read of the history would not.
+ */
+public class PublishingTransactionRepository implements TransactionRepository {
+  private final TransactionRepository delegate;
+  private final ChangeFeed changeFeed;
+
+  public PublishingTransactionRepository(TransactionRepository delegate, ChangeFeed changeFeed) {
+    this.delegate = delegate;
+    this.changeFeed = changeFeed;
+  }
+
+  @Override
+  public Transaction addTransaction(Transaction transaction) {
+    Transaction added = delegate.addTransaction(transaction);
+    changeFeed.publish(added);
+    return added;
+  }
+
+  @Override
+  public void addTransactions(List<Transaction> transactions) {
+    delegate.addTransactions(transactions);
+    changeFeed.publishAll(transactions);
+  }
+
+  @Override
+  public List<Transaction> getTransactions(UUID accountId) {
+    return delegate.getTransactions(accountId);
+  }
+
+  @Override
+  public int countTransactions(UUID accountId) {
+    return delegate.countTransactions(accountId);
+  }
+
+  @Override
+  public TransactionPage getTransactions(
+      UUID accountId, int position, int limit, Long from, Long to) {
+    return delegate.getTransactions(accountId, position, limit, from, to);
+  }
+
+  @Override
+  public Optional<Transaction> getTransactionAsOf(UUID accountId, long asOf) {
+    return delegate.getTransactionAsOf(accountId, asOf);
+  }
+
+  @Override
+  public long size() {
+    return delegate.size();
+  }
+}
@@ -0,0 +1,334 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Transaction;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps each account's recent history on the heap and rolls older history into compressed {@link
+ * ColdSegment} files on local disk, one per time bucket, so the heap holds the active working set
+ * rather than the whole age of the ledger. Reads see one history across both tiers.
+ *
+ * <p>Compaction moves every whole bucket older than the hot retention. It builds the segment files
+ * first and then swaps each account's tiers under its lock, so readers always see either the old
+ * tiers or the new ones. Segment files are a spill area, not a durable store: they are cleared on
+ * startup, and durability comes from the journal.
+ */
+public class TieredTransactionRepository implements TransactionRepository, AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(TieredTransactionRepository.class);
+
+  private final ConcurrentMap<UUID, AccountHistory> accounts = new ConcurrentHashMap<>();
+  private final Path directory;
+  private final Duration hotRetention;
+  private final long bucketMicros;
+  private final AtomicLong segmentSequence = new AtomicLong();
+  private final ReentrantLock compactionLock = new ReentrantLock();
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * @param directory where segment files are written, any left from an earlier run are deleted
+   * @param hotRetention how long transactions stay on the heap before they can be compacted
+   * @param bucket time span covered by each segment file
+   * @param compactionInterval how often compaction runs in the background, zero to only compact
+   *     when {@link #compact(Instant)} is called
+   */
+  public TieredTransactionRepository(
+      Path directory, Duration hotRetention, Duration bucket, Duration compactionInterval)
+      throws IOException {
+    if (bucket.toNanos() < 1_000) {
+      throw new IllegalArgumentException("Bucket must be at least a microsecond");
+    }
+    ColdSegment.deleteAll(directory);
+    this.directory = directory;
+    this.hotRetention = hotRetention;
+    this.bucketMicros = bucket.toNanos() / 1_000;
+    if (compactionInterval.isZero()) {
+      this.scheduler = null;
+      return;
+    }
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "ledger-compactor");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long intervalNanos = compactionInterval.toNanos();
+    scheduler.scheduleWithFixedDelay(
+        this::compactQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public Transaction addTransaction(Transaction transaction) {
+    accounts
+        .computeIfAbsent(transaction.accountId(), accountId -> new AccountHistory())
+        .append(transaction);
+    return transaction;
+  }
+
+  @Override
+  public List<Transaction> getTransactions(UUID accountId) {
+    AccountHistory history = accounts.get(accountId);
+    if (history == null) {
+      return List.of();
+    }
+    Tiers tiers = history.tiers;
+    List<Transaction> hot = tiers.hot.snapshot();
+    return tiers.cold.length == 0 ? hot : new ConcatenatedList<>(new ColdHistory(tiers), hot);
+  }
+
+  @Override
+  public Optional<Transaction> getTransactionAsOf(UUID accountId, long asOf) {
+    AccountHistory history = accounts.get(accountId);
+    if (history == null) {
+      return Optional.empty();
+    }
+    Tiers tiers = history.tiers;
+    List<Transaction> hot = tiers.hot.snapshot();
+    int hotCount = firstAtOrAfter(hot, asOf + 1);
+    if (hotCount > 0) {
+      return Optional.of(hot.get(hotCount - 1));
+    }
+    // runs are in time order, so the last one starting at or before asOf holds the answer
+    int low = 0;
+    int high = tiers.cold.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (tiers.cold[middle].firstCreatedAt() <= asOf) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low == 0 ? Optional.empty() : Optional.of(tiers.cold[low - 1].lastAtOrBefore(asOf));
+  }
+
+  @Override
+  public int countTransactions(UUID accountId) {
+    AccountHistory history = accounts.get(accountId);
+    if (history == null) {
+      return 0;
+    }
+    Tiers tiers = history.tiers;
+    return tiers.coldSize + tiers.hot.size();
+  }
+
+  @Override
+  public long size() {
+    long size = 0;
+    for (AccountHistory history : accounts.values()) {
+      Tiers tiers = history.tiers;
+      size += tiers.coldSize + tiers.hot.size();
+    }
+    return size;
+  }
+
+  /** Number of transactions still held on the heap. */
+  public long hotSize() {
+    long size = 0;
+    for (AccountHistory history : accounts.values()) {
+      size += history.tiers.hot.size();
+    }
+    return size;
+  }
+
+  /**
+   * Moves every transaction in a bucket that ended before {@code now} minus the hot retention to
+   * segment files.
+   *
+   * @return the number of transactions moved
+   */
+  public long compact(Instant now) throws IOException {
+    Instant horizon = now.minus(hotRetention);
+    long horizonMicros = horizon.getEpochSecond() * 1_000_000 + horizon.getNano() / 1_000;
+    long cutoff = Math.floorDiv(horizonMicros, bucketMicros) * bucketMicros;
+    compactionLock.lock();
+    try {
+      // only compaction replaces hot segments, so the prefixes found here stay put until the swap
+      Map<UUID, Integer> moved = new LinkedHashMap<>();
+      TreeMap<Long, Map<UUID, List<Transaction>>> buckets = new TreeMap<>();
+      accounts.forEach(
+          (accountId, history) -> {
+            List<Transaction> hot = history.tiers.hot.snapshot();
+            int count = firstAtOrAfter(hot, cutoff);
+            if (count > 0) {
+              moved.put(accountId, count);
+              for (Transaction transaction : hot.subList(0, count)) {
+                long bucket = Math.floorDiv(transaction.createdAt(), bucketMicros);
+                buckets
+                    .computeIfAbsent(bucket, start -> new LinkedHashMap<>())
+                    .computeIfAbsent(accountId, id -> new ArrayList<>())
+                    .add(transaction);
+              }
+            }
+          });
+
+      Map<UUID, List<ColdSegment.Run>> runs = new LinkedHashMap<>();
+      for (Map.Entry<Long, Map<UUID, List<Transaction>>> bucket : buckets.entrySet()) {
+        Path file =
+            directory.resolve(
+                "bucket-%d-%d.cold"
+                    .formatted(bucket.getKey() * bucketMicros, segmentSequence.incrementAndGet()));
+        ColdSegment.write(file, bucket.getValue())
+            .forEach(
+                (accountId, run) ->
+                    runs.computeIfAbsent(accountId, id -> new ArrayList<>()).add(run));
+      }
+
+      long total = 0;
+      for (Map.Entry<UUID, Integer> entry : moved.entrySet()) {
+        accounts.get(entry.getKey()).demote(entry.getValue(), runs.get(entry.getKey()));
+        total += entry.getValue();
+      }
+      return total;
+    } finally {
+      compactionLock.unlock();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (scheduler != null) {
+      scheduler.shutdown();
+    }
+  }
+
+  private void compactQuietly() {
+    try {
+      long moved = compact(Instant.now());
+      if (moved > 0) {
+        log.debug("Moved {} transactions to cold segments", moved);
+      }
+    } catch (IOException | UncheckedIOException e) {
+      log.warn("Could not compact transaction history", e);
+    }
+  }
+
+  private static int firstAtOrAfter(List<Transaction> history, long epochMicros) {
+    int low = 0;
+    int high = history.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (history.get(middle).createdAt() < epochMicros) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /** Cold runs oldest first, followed by the hot segment. Replaced as a whole on compaction. */
+  private static final class Tiers {
+    private final ColdSegment.Run[] cold;
+    // index of the first row of each run, plus the total row count at the end
+    private final int[] coldStarts;
+    private final int coldSize;
+    private final AccountSegment hot;
+
+    private Tiers(ColdSegment.Run[] cold, AccountSegment hot) {
+      this.cold = cold;
+      this.coldStarts = new int[cold.length + 1];
+      for (int i = 0; i < cold.length; i++) {
+        coldStarts[i + 1] = coldStarts[i] + cold[i].size();
+      }
+      this.coldSize = coldStarts[cold.length];
+      this.hot = hot;
+    }
+  }
+
+  private static final class AccountHistory {
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Tiers tiers = new Tiers(new ColdSegment.Run[0], new AccountSegment());
+
+    private void append(Transaction transaction) {
+      lock.lock();
+      try {
+        tiers.hot.append(transaction);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** Replaces the first {@code count} hot transactions with the runs holding them. */
+    private void demote(int count, List<ColdSegment.Run> runs) {
+      lock.lock();
+      try {
+        Tiers current = tiers;
+        List<Transaction> hot = current.hot.snapshot();
+        AccountSegment remaining = new AccountSegment();
+        for (Transaction transaction : hot.subList(count, hot.size())) {
+          remaining.append(transaction);
+        }
+        ColdSegment.Run[] cold = Arrays.copyOf(current.cold, current.cold.length + runs.size());
+        for (int i = 0; i < runs.size(); i++) {
+          cold[current.cold.length + i] = runs.get(i);
+        }
+        tiers = new Tiers(cold, remaining);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * The cold part of one history read. The last decoded block is kept, so reading rows in order
+   * decodes each block once.
+   */
+  private static final class ColdHistory extends AbstractList<Transaction>
+      implements RandomAccess {
+    private final Tiers tiers;
+    private DecodedBlock last;
+
+    private ColdHistory(Tiers tiers) {
+      this.tiers = tiers;
+    }
+
+    @Override
+    public Transaction get(int index) {
+      if (index < 0 || index >= tiers.coldSize) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + tiers.coldSize);
+      }
+      int run = Arrays.binarySearch(tiers.coldStarts, index);
+      // a miss returns -(insertion point) - 1, and the run starts just before the insertion point
+      run = run >= 0 ? run : -run - 2;
+      int row = index - tiers.coldStarts[run];
+      int block = row / ColdSegment.BLOCK_SIZE;
+      DecodedBlock decoded = last;
+      if (decoded == null || decoded.run != run || decoded.block != block) {
+        decoded = new DecodedBlock(run, block, tiers.cold[run].readBlock(block));
+        last = decoded;
+      }
+      return decoded.rows[row % ColdSegment.BLOCK_SIZE];
+    }
+
+    @Override
+    public int size() {
+      return tiers.coldSize;
+    }
+  }
+
+  private record DecodedBlock(int run, int block, Transaction[] rows) {}
+}
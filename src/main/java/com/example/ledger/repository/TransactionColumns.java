@@ -0,0 +1,107 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Transaction;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Append-only log of transactions stored as primitive columns in fixed-size chunks, so a posting
+ * costs a few array slots instead of a graph of objects and growing never copies rows. Rows are
+ * turned back into {@link Transaction} records on read.
+ */
+final class TransactionColumns {
+  private static final int CHUNK_SHIFT = 12;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final Transaction.TransactionType[] TYPES =
+      Transaction.TransactionType.values();
+
+  private volatile Chunk[] chunks = new Chunk[16];
+  private volatile int size;
+
+  /**
+   * Appends the transactions as consecutive rows and returns the row of the first one. Callers must
+   * serialize appends.
+   */
+  int appendAll(List<Transaction> transactions) {
+    int first = size;
+    for (Transaction transaction : transactions) {
+      int row = size;
+      if (row == Integer.MAX_VALUE) {
+        throw new IllegalStateException("Transaction columns are full");
+      }
+      chunkFor(row).set(row & CHUNK_MASK, transaction);
+      size = row + 1;
+    }
+    return first;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Reads a row. Callers must have learned the row number through a happens-before edge with the
+   * append, such as a volatile read of an {@link AccountRows} size.
+   */
+  Transaction get(int row) {
+    return chunks[row >>> CHUNK_SHIFT].get(row & CHUNK_MASK);
+  }
+
+  private Chunk chunkFor(int row) {
+    int index = row >>> CHUNK_SHIFT;
+    Chunk[] current = chunks;
+    if (index == current.length) {
+      current = Arrays.copyOf(current, index * 2);
+      chunks = current;
+    }
+    Chunk chunk = current[index];
+    if (chunk == null) {
+      chunk = new Chunk();
+      current[index] = chunk;
+    }
+    return chunk;
+  }
+
+  private static final class Chunk {
+    private final long[] idHigh = new long[CHUNK_SIZE];
+    private final long[] idLow = new long[CHUNK_SIZE];
+    private final long[] accountHigh = new long[CHUNK_SIZE];
+    private final long[] accountLow = new long[CHUNK_SIZE];
+    private final long[] amount = new long[CHUNK_SIZE];
+    private final byte[] type = new byte[CHUNK_SIZE];
+    private final long[] balance = new long[CHUNK_SIZE];
+    private final long[] createdAt = new long[CHUNK_SIZE];
+    private final long[] transferHigh = new long[CHUNK_SIZE];
+    private final long[] transferLow = new long[CHUNK_SIZE];
+
+    private void set(int slot, Transaction transaction) {
+      idHigh[slot] = transaction.id().getMostSignificantBits();
+      idLow[slot] = transaction.id().getLeastSignificantBits();
+      accountHigh[slot] = transaction.accountId().getMostSignificantBits();
+      accountLow[slot] = transaction.accountId().getLeastSignificantBits();
+      amount[slot] = transaction.amount();
+      type[slot] = (byte) transaction.type().ordinal();
+      balance[slot] = transaction.balance();
+      createdAt[slot] = transaction.createdAt();
+      // the nil UUID stands for no transfer, random transfer ids are never nil
+      UUID transferId = transaction.transferId();
+      transferHigh[slot] = transferId == null ? 0 : transferId.getMostSignificantBits();
+      transferLow[slot] = transferId == null ? 0 : transferId.getLeastSignificantBits();
+    }
+
+    private Transaction get(int slot) {
+      return new Transaction(
+          new UUID(idHigh[slot], idLow[slot]),
+          new UUID(accountHigh[slot], accountLow[slot]),
+          amount[slot],
+          TYPES[type[slot]],
+          balance[slot],
+          createdAt[slot],
+          transferHigh[slot] == 0 && transferLow[slot] == 0
+              ? null
+              : new UUID(transferHigh[slot], transferLow[slot]));
+    }
+  }
+}
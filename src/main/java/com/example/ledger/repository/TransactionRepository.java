@@ -1,24 +1,83 @@
 package com.example.ledger.repository;
 
 import com.example.ledger.models.Transaction;
+import com.example.ledger.models.TransactionPage;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public class TransactionRepository {
-  private final List<Transaction> transactions;
+public interface TransactionRepository {
+  Transaction addTransaction(Transaction transaction);
 
-  public TransactionRepository(List<Transaction> transactions) {
-    this.transactions = transactions;
+  /** Adds a batch of transactions, in order. Implementations may store it in a single write. */
+  default void addTransactions(List<Transaction> transactions) {
+    transactions.forEach(this::addTransaction);
   }
 
-  public Transaction addTransaction(Transaction transaction) {
-    transactions.add(transaction);
-    return transaction;
+  /** Returns the account's transactions in the order they were added. */
+  List<Transaction> getTransactions(UUID accountId);
+
+  /** Returns the number of transactions in the account's history. */
+  default int countTransactions(UUID accountId) {
+    return getTransactions(accountId).size();
+  }
+
+  /** Returns the number of transactions stored across all accounts. */
+  long size();
+
+  /**
+   * Returns up to {@code limit} of the account's transactions created in {@code [from, to)},
+   * starting at history {@code position}. Bounds are in epoch microseconds and either may be {@code
+   * null}.
+   *
+   * <p>Histories are append-only and stamped in posting order, so positions stay stable across
+   * appends and time bounds are found by binary search over the history snapshot instead of
+   * filtering it.
+   */
+  default TransactionPage getTransactions(
+      UUID accountId, int position, int limit, Long from, Long to) {
+    List<Transaction> history = getTransactions(accountId);
+    int start = from == null ? position : Math.max(position, firstCreatedAtOrAfter(history, from));
+    int end = to == null ? history.size() : firstCreatedAtOrAfter(history, to);
+    if (start >= end) {
+      return new TransactionPage(List.of(), null);
+    }
+    int pageEnd = start + Math.min(limit, end - start);
+    return new TransactionPage(
+        history.subList(start, pageEnd), pageEnd < end ? pageEnd : null);
+  }
+
+  /**
+   * Returns the account's last transaction created at or before {@code asOf}, in epoch
+   * microseconds, whose balance is the account's balance at that instant, found by binary search
+   * like the time bounds above.
+   */
+  default Optional<Transaction> getTransactionAsOf(UUID accountId, long asOf) {
+    List<Transaction> history = getTransactions(accountId);
+    int low = 0;
+    int high = history.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (history.get(middle).createdAt() > asOf) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return low == 0 ? Optional.empty() : Optional.of(history.get(low - 1));
   }
 
-  public List<Transaction> getTransactions(UUID accountId) {
-    return transactions.stream()
-        .filter(transaction -> transaction.accountId().equals(accountId))
-        .toList();
+  private static int firstCreatedAtOrAfter(List<Transaction> history, long instant) {
+    int low = 0;
+    int high = history.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (history.get(middle).createdAt() < instant) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
   }
 }
@@ -0,0 +1,88 @@
+package com.example.ledger.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed set of locks striped by account id. Operations on the same account are serialized, while
+ * operations on accounts that hash to different stripes run in parallel. Time spent waiting for a
+ * stripe is recorded as {@code ledger.lock.wait}.
+ */
+public class AccountLocks {
+  private final ReentrantLock[] stripes;
+  private final int mask;
+  private final Timer lockWait;
+
+  public AccountLocks(int stripeCount, MeterRegistry meterRegistry) {
+    if (stripeCount < 1) {
+      throw new IllegalArgumentException("Stripe count must be positive");
+    }
+    int size = Integer.highestOneBit(stripeCount - 1) << 1;
+    stripes = new ReentrantLock[Math.max(size, 1)];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+    mask = stripes.length - 1;
+    lockWait =
+        Timer.builder("ledger.lock.wait")
+            .description("Time spent waiting to acquire an account lock stripe")
+            .publishPercentiles(0.5, 0.99, 0.999)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+  }
+
+  public <T> T withLock(UUID accountId, Supplier<T> action) {
+    ReentrantLock lock = stripes[stripeIndex(accountId)];
+    lock(lock);
+    try {
+      return action.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Runs the action holding the locks of both accounts. Stripes are always locked in ascending
+   * index order, which is the canonical order that matters once accounts share stripes, so callers
+   * locking the same pair in opposite argument order cannot deadlock.
+   */
+  public <T> T withLocks(UUID firstAccountId, UUID secondAccountId, Supplier<T> action) {
+    int first = stripeIndex(firstAccountId);
+    int second = stripeIndex(secondAccountId);
+    if (first == second) {
+      return withLock(firstAccountId, action);
+    }
+    ReentrantLock lower = stripes[Math.min(first, second)];
+    ReentrantLock upper = stripes[Math.max(first, second)];
+    lock(lower);
+    try {
+      lock(upper);
+      try {
+        return action.get();
+      } finally {
+        upper.unlock();
+      }
+    } finally {
+      lower.unlock();
+    }
+  }
+
+  private void lock(ReentrantLock lock) {
+    long start = System.nanoTime();
+    lock.lock();
+    lockWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+
+  int stripeIndex(UUID accountId) {
+    int hash = accountId.hashCode();
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  int stripeCount() {
+    return stripes.length;
+  }
+}
@@ -2,31 +2,53 @@ package com.example.ledger.service;
 
 import com.example.ledger.models.Balance;
 import com.example.ledger.repository.BalanceRepository;
-import java.time.OffsetDateTime;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import org.springframework.stereotype.Service;
 
 @Service
 public class BalanceService {
   private final BalanceRepository balanceRepository;
+  private final Timer getBalanceLatency;
 
-  public BalanceService(BalanceRepository balanceRepository) {
+  public BalanceService(BalanceRepository balanceRepository, MeterRegistry meterRegistry) {
     this.balanceRepository = balanceRepository;
+    this.getBalanceLatency = TransactionService.operationTimer("balance", meterRegistry);
   }
 
+  /**
+   * Returns the account's balance, or a zero balance updated at the epoch for an account that has
+   * none. Reads never store anything, so probing unknown accounts does not grow the repository.
+   */
   public Balance getBalance(UUID accountId) {
-    Optional<Balance> balance = balanceRepository.getBalance(accountId);
+    long start = System.nanoTime();
+    try {
+      Optional<Balance> balance = balanceRepository.getBalance(accountId);
+      return balance.orElseGet(() -> new Balance(0, 0L));
+    } finally {
+      getBalanceLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
 
-    if (balance.isEmpty()) {
-      Balance newBalance = new Balance(0, OffsetDateTime.now());
-      return balanceRepository.saveBalance(accountId, newBalance);
-    } else {
-      return balance.get();
+  /** Returns the account's balance amount, zero if it has none, without allocating. */
+  public long getBalanceAmount(UUID accountId) {
+    long start = System.nanoTime();
+    try {
+      return balanceRepository.getAmount(accountId);
+    } finally {
+      getBalanceLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
     }
   }
 
   public void saveBalance(UUID accountId, Balance newBalance) {
     balanceRepository.saveBalance(accountId, newBalance);
   }
+
+  public void saveBalances(Map<UUID, Balance> newBalances) {
+    balanceRepository.saveBalances(newBalances);
+  }
 }
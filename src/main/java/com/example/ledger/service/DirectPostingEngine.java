@@ -0,0 +1,53 @@
+package com.example.ledger.service;
+
+import com.example.ledger.models.Posting;
+import com.example.ledger.models.PostingOutcome;
+import com.example.ledger.models.Transaction;
+import com.example.ledger.models.Transfer;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/** Applies postings on the calling thread through {@link TransactionService}. */
+public class DirectPostingEngine implements PostingEngine {
+  private final TransactionService transactionService;
+
+  public DirectPostingEngine(TransactionService transactionService) {
+    this.transactionService = transactionService;
+  }
+
+  @Override
+  public CompletableFuture<Transaction> submit(Posting posting) {
+    try {
+      Transaction transaction =
+          switch (posting.type()) {
+            case DEPOSIT -> transactionService.createDeposit(posting.accountId(), posting.amount());
+            case WITHDRAWAL ->
+                transactionService.createWithdrawal(posting.accountId(), posting.amount());
+          };
+      return CompletableFuture.completedFuture(transaction);
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Transfer> transfer(
+      UUID sourceAccountId, UUID destinationAccountId, long amount) {
+    try {
+      return CompletableFuture.completedFuture(
+          transactionService.transfer(sourceAccountId, destinationAccountId, amount));
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  @Override
+  public CompletableFuture<List<PostingOutcome>> submitAll(List<Posting> postings) {
+    try {
+      return CompletableFuture.completedFuture(transactionService.postBatch(postings));
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+}
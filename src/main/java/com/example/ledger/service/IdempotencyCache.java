@@ -0,0 +1,73 @@
+package com.example.ledger.service;
+
+import com.example.ledger.exceptions.IdempotencyKeyReusedException;
+import com.example.ledger.models.Posting;
+import com.example.ledger.models.Transaction;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Remembers the transaction created for each idempotency key, so a retried deposit or withdrawal
+ * completes with the original transaction instead of posting again. Keys are scoped to the account
+ * and posting type, bounded in number and forgotten after a time to live. Hits, misses and
+ * evictions are published as the {@code cache.*} meters of the {@code idempotency} cache.
+ */
+public class IdempotencyCache {
+  private final AsyncCache<Key, Transaction> transactions;
+
+  public IdempotencyCache(long maximumSize, Duration timeToLive, MeterRegistry meterRegistry) {
+    this.transactions =
+        CaffeineCacheMetrics.monitor(
+            meterRegistry,
+            Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .buildAsync(),
+            "idempotency");
+  }
+
+  /**
+   * Submits the posting unless one was already submitted with the same key. Concurrent requests
+   * with the same key share one posting; a posting that fails is forgotten so it can be retried.
+   * Reusing a key for a different amount fails with {@link IdempotencyKeyReusedException}.
+   */
+  public CompletableFuture<Transaction> submit(
+      String idempotencyKey,
+      Posting posting,
+      Function<Posting, CompletableFuture<Transaction>> submitter) {
+    Key key = new Key(posting.accountId(), posting.type(), idempotencyKey);
+    CompletableFuture<Transaction> created = new CompletableFuture<>();
+    // register the pending result first, so the posting itself runs outside the cache's locks
+    CompletableFuture<Transaction> result = transactions.get(key, (ignored, executor) -> created);
+    if (result == created) {
+      submitter
+          .apply(posting)
+          .whenComplete(
+              (transaction, failure) -> {
+                if (failure == null) {
+                  created.complete(transaction);
+                } else {
+                  created.completeExceptionally(failure);
+                }
+              });
+      return created;
+    }
+    return result.thenApply(
+        transaction -> {
+          if (transaction.amount() != posting.amount()) {
+            throw new IdempotencyKeyReusedException(
+                "Idempotency key was already used for a different amount");
+          }
+          return transaction;
+        });
+  }
+
+  private record Key(UUID accountId, Transaction.TransactionType type, String idempotencyKey) {}
+}
@@ -0,0 +1,10 @@
+package com.example.ledger.service;
+
+/**
+ * Source of transaction timestamps, in microseconds since the epoch. Every timestamp handed out is
+ * greater than all earlier ones, so timestamps are unique across the ledger and strictly increasing
+ * within each account's history.
+ */
+public interface LedgerClock {
+  long nextMicros();
+}
@@ -0,0 +1,55 @@
+package com.example.ledger.service;
+
+import com.example.ledger.models.Posting;
+import com.example.ledger.models.PostingOutcome;
+import com.example.ledger.models.Transaction;
+import com.example.ledger.models.Transfer;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/** Executes postings against account balances, either inline or on dedicated threads. */
+public interface PostingEngine extends AutoCloseable {
+  /**
+   * Applies the posting and completes with the stored transaction, or exceptionally with the reason
+   * it was rejected (e.g. {@link com.example.ledger.exceptions.InsufficientFundsException}).
+   */
+  CompletableFuture<Transaction> submit(Posting posting);
+
+  /**
+   * Moves {@code amount} from the source to the destination account and completes with both legs,
+   * or exceptionally if the source cannot cover it, in which case neither leg is stored.
+   */
+  CompletableFuture<Transfer> transfer(
+      UUID sourceAccountId, UUID destinationAccountId, long amount);
+
+  /**
+   * Applies the postings, in order per account, and completes with one outcome per posting.
+   * Postings rejected for insufficient funds or an overflowing balance, or that could not be
+   * stored, do not fail the batch: other postings may already be stored, so each outcome says what
+   * became of its posting.
+   */
+  default CompletableFuture<List<PostingOutcome>> submitAll(List<Posting> postings) {
+    List<CompletableFuture<PostingOutcome>> outcomes =
+        postings.stream().map(posting -> submit(posting).handle(PostingEngine::outcome)).toList();
+    return CompletableFuture.allOf(outcomes.toArray(CompletableFuture[]::new))
+        .thenApply(done -> outcomes.stream().map(CompletableFuture::join).toList());
+  }
+
+  @Override
+  default void close() {}
+
+  private static PostingOutcome outcome(Transaction transaction, Throwable failure) {
+    if (failure == null) {
+      return PostingOutcome.posted(transaction);
+    }
+    Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+    if (cause instanceof RuntimeException rejection) {
+      return PostingOutcome.rejected(rejection);
+    }
+    throw failure instanceof CompletionException completion
+        ? completion
+        : new CompletionException(failure);
+  }
+}
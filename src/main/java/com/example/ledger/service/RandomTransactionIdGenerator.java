@@ -0,0 +1,14 @@
+package com.example.ledger.service;
+
+import java.util.UUID;
+
+/**
+ * Random version 4 UUIDs from {@link UUID#randomUUID()}. They carry no time, and every one is drawn
+ * from the {@code SecureRandom} shared by all threads.
+ */
+public class RandomTransactionIdGenerator implements TransactionIdGenerator {
+  @Override
+  public UUID nextId(long epochMicros) {
+    return UUID.randomUUID();
+  }
+}
@@ -0,0 +1,428 @@
+package com.example.ledger.service;
+
+import com.example.ledger.models.Balance;
+import com.example.ledger.models.Posting;
+import com.example.ledger.models.Transaction;
+import com.example.ledger.models.Transfer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hashes accounts to a fixed number of shards. Each shard is the single writer of its accounts: it
+ * drains a lock-free multi-producer queue on its own thread and applies postings without taking any
+ * account lock.
+ *
+ * <p>Shards group-commit: a shard collects postings for up to {@code batchWindow} or until {@code
+ * maxBatchSize} postings are pending, applies them in arrival order and stores the batch with one
+ * balance write and one transaction append.
+ *
+ * <p>Shards do not keep their accounts' balances for themselves: the shared balance store stays the
+ * single source of truth, as balance reads, journal recovery and cross-shard transfers all go
+ * through it, and a copy per shard would bring every balance back onto the heap when the off-heap
+ * store is in use. A shard reads a balance from the store when a batch first touches the account
+ * and writes it back with the batch. Being the only writer of its accounts, it needs no lock for
+ * that, and cross-shard transfers pause both shards before they write.
+ */
+public class ShardedPostingEngine implements PostingEngine {
+  private final TransactionService transactionService;
+  private final int maxBatchSize;
+  private final long batchWindowNanos;
+  private final DistributionSummary batchSize;
+  private final Timer commitLatency;
+  private final Timer postingLatency;
+  private final Shard[] shards;
+
+  public ShardedPostingEngine(
+      TransactionService transactionService,
+      int shardCount,
+      int maxBatchSize,
+      Duration batchWindow,
+      MeterRegistry meterRegistry) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Shard count must be positive");
+    }
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("Max batch size must be positive");
+    }
+    this.transactionService = transactionService;
+    this.maxBatchSize = maxBatchSize;
+    this.batchWindowNanos = batchWindow.toNanos();
+    this.batchSize =
+        DistributionSummary.builder("ledger.engine.batch.size")
+            .description("Postings stored per group commit")
+            .publishPercentiles(0.5, 0.99)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.commitLatency =
+        Timer.builder("ledger.engine.commit.latency")
+            .description("Time to apply and store one group commit")
+            .publishPercentiles(0.5, 0.99)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.postingLatency =
+        Timer.builder("ledger.engine.posting.latency")
+            .description("Time from submitting a posting until its batch is stored")
+            .publishPercentiles(0.5, 0.99, 0.999)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.shards = new Shard[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = new Shard(i);
+    }
+    for (Shard shard : shards) {
+      shard.thread.start();
+    }
+  }
+
+  @Override
+  public CompletableFuture<Transaction> submit(Posting posting) {
+    Command command = new Command(List.of(posting), null, System.nanoTime());
+    shardFor(posting.accountId()).enqueue(command);
+    return command.result.thenApply(transactions -> transactions.get(0));
+  }
+
+  /**
+   * Transfers between accounts of the same shard are applied atomically as one command. Across
+   * shards both shards are paused between batches and the calling thread applies the transfer
+   * through {@link TransactionService#transfer}, storing both legs in one write.
+   */
+  @Override
+  public CompletableFuture<Transfer> transfer(
+      UUID sourceAccountId, UUID destinationAccountId, long amount) {
+    try {
+      TransactionService.validateTransfer(sourceAccountId, destinationAccountId);
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    long submittedNanos = System.nanoTime();
+    Shard sourceShard = shardFor(sourceAccountId);
+    Shard destinationShard = shardFor(destinationAccountId);
+
+    if (sourceShard != destinationShard) {
+      try {
+        return CompletableFuture.completedFuture(
+            transferAcrossShards(
+                sourceShard, destinationShard, sourceAccountId, destinationAccountId, amount));
+      } catch (CompletionException e) {
+        return CompletableFuture.failedFuture(e.getCause());
+      } catch (RuntimeException e) {
+        return CompletableFuture.failedFuture(e);
+      } finally {
+        postingLatency.record(System.nanoTime() - submittedNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+    UUID transferId = transactionService.newTransferId();
+    Posting debit = Posting.withdrawal(sourceAccountId, amount);
+    Posting credit = Posting.deposit(destinationAccountId, amount);
+    Command command = new Command(List.of(debit, credit), transferId, submittedNanos);
+    sourceShard.enqueue(command);
+    return command.result.thenApply(legs -> new Transfer(transferId, legs.get(0), legs.get(1)));
+  }
+
+  private Transfer transferAcrossShards(
+      Shard sourceShard,
+      Shard destinationShard,
+      UUID sourceAccountId,
+      UUID destinationAccountId,
+      long amount) {
+    // pause in shard order so two transfers in opposite directions cannot wait on each other
+    Shard first = sourceShard.index < destinationShard.index ? sourceShard : destinationShard;
+    Shard second = first == sourceShard ? destinationShard : sourceShard;
+    first.pauseLock.lock();
+    second.pauseLock.lock();
+    Pause firstPause = first.pause();
+    Pause secondPause = second.pause();
+    try {
+      firstPause.paused.join();
+      secondPause.paused.join();
+      // neither shard writes while paused, so the account locks make this thread the only writer
+      return transactionService.transfer(sourceAccountId, destinationAccountId, amount);
+    } finally {
+      firstPause.released.countDown();
+      secondPause.released.countDown();
+      second.pauseLock.unlock();
+      first.pauseLock.unlock();
+    }
+  }
+
+  @Override
+  public void close() {
+    for (Shard shard : shards) {
+      shard.stop();
+    }
+    for (Shard shard : shards) {
+      try {
+        shard.thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    // every shard thread is gone, so this thread is now the single writer of all accounts
+    for (Shard shard : shards) {
+      shard.drainStopped();
+    }
+  }
+
+  private Shard shardFor(UUID accountId) {
+    return shards[Math.floorMod(accountId.hashCode(), shards.length)];
+  }
+
+  /**
+   * Postings applied all-or-nothing, in order, and completed together: a single posting, or both
+   * legs of a transfer within one shard. A command carrying a {@link Pause} has no postings.
+   */
+  private static final class Command {
+    private final List<Posting> postings;
+    private final UUID transferId;
+    private final long submittedNanos;
+    private final Pause pause;
+    private final CompletableFuture<List<Transaction>> result = new CompletableFuture<>();
+
+    private Command(List<Posting> postings, UUID transferId, long submittedNanos) {
+      this(postings, transferId, submittedNanos, null);
+    }
+
+    private Command(Pause pause) {
+      this(List.of(), null, System.nanoTime(), pause);
+    }
+
+    private Command(List<Posting> postings, UUID transferId, long submittedNanos, Pause pause) {
+      this.postings = postings;
+      this.transferId = transferId;
+      this.submittedNanos = submittedNanos;
+      this.pause = pause;
+    }
+
+    private void fail(Throwable failure) {
+      result.completeExceptionally(failure);
+      if (pause != null) {
+        pause.paused.completeExceptionally(failure);
+      }
+    }
+  }
+
+  /**
+   * Holds a shard thread between two batches: it completes {@code paused} once everything queued
+   * before it is stored, then waits for {@code released}.
+   */
+  private static final class Pause {
+    private final CompletableFuture<Void> paused = new CompletableFuture<>();
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private void hold() {
+      paused.complete(null);
+      boolean interrupted = false;
+      while (true) {
+        try {
+          released.await();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private final class Shard implements Runnable {
+    private final int index;
+    // held by the thread that pauses this shard for a cross-shard transfer
+    private final ReentrantLock pauseLock = new ReentrantLock();
+    private final Queue<Command> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean sleeping = new AtomicBoolean();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // reused across batches, only touched by the shard thread
+    private final List<Command> batch = new ArrayList<>();
+    private final List<Command> applied = new ArrayList<>();
+    private final List<Transaction> transactions = new ArrayList<>();
+    // balances carried forward within one batch, read from and stored back to the balance store
+    private final Map<UUID, Balance> balances = new HashMap<>();
+
+    private Shard(int index) {
+      this.index = index;
+      thread = new Thread(this, "ledger-shard-" + index);
+      thread.setDaemon(true);
+    }
+
+    void enqueue(Command command) {
+      if (!running) {
+        command.fail(new IllegalStateException("Engine is stopped"));
+        return;
+      }
+      queue.offer(command);
+      if (!running) {
+        // close() may have drained the queue already; whoever takes the command back fails it
+        if (queue.remove(command)) {
+          command.fail(new IllegalStateException("Engine is stopped"));
+        }
+        return;
+      }
+      if (sleeping.get() && sleeping.compareAndSet(true, false)) {
+        LockSupport.unpark(thread);
+      }
+    }
+
+    Pause pause() {
+      Pause pause = new Pause();
+      enqueue(new Command(pause));
+      return pause;
+    }
+
+    void stop() {
+      running = false;
+      LockSupport.unpark(thread);
+    }
+
+    /** Runs on the closing thread after every shard has stopped: fails commands that raced. */
+    void drainStopped() {
+      Command command;
+      while ((command = queue.poll()) != null) {
+        command.fail(new IllegalStateException("Engine is stopped"));
+      }
+    }
+
+    @Override
+    public void run() {
+      while (running || !queue.isEmpty()) {
+        Command command = queue.poll();
+        if (command == null) {
+          await(Long.MAX_VALUE);
+          continue;
+        }
+        if (command.pause != null) {
+          command.pause.hold();
+          continue;
+        }
+        batch.add(command);
+        Pause pause = fillBatch();
+        commit();
+        if (pause != null) {
+          pause.hold();
+        }
+      }
+    }
+
+    /**
+     * @return a pause that ended the batch early, to hold once the batch is stored
+     */
+    private Pause fillBatch() {
+      long deadline = System.nanoTime() + batchWindowNanos;
+      while (batch.size() < maxBatchSize) {
+        Command command = queue.poll();
+        if (command != null) {
+          if (command.pause != null) {
+            return command.pause;
+          }
+          batch.add(command);
+          continue;
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0 || !running) {
+          return null;
+        }
+        await(remaining);
+      }
+      return null;
+    }
+
+    private void await(long nanos) {
+      // announce the nap before re-checking the queue so no producer can miss waking us
+      sleeping.set(true);
+      if (queue.isEmpty() && running) {
+        if (nanos == Long.MAX_VALUE) {
+          LockSupport.park(this);
+        } else {
+          LockSupport.parkNanos(this, nanos);
+        }
+      }
+      sleeping.set(false);
+    }
+
+    private void commit() {
+      long started = System.nanoTime();
+      try {
+        // apply in arrival order, carrying balances forward within the batch
+        for (Command command : batch) {
+          apply(command);
+        }
+
+        store();
+        batchSize.record(batch.size());
+        commitLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+      } finally {
+        batch.clear();
+        applied.clear();
+        transactions.clear();
+        balances.clear();
+      }
+    }
+
+    private void apply(Command command) {
+      int appliedBefore = transactions.size();
+      // only commands with several legs can fail halfway and need to be undone
+      boolean undoable = command.postings.size() > 1;
+      Map<UUID, Balance> previous = undoable ? new HashMap<>() : Map.of();
+      try {
+        for (Posting posting : command.postings) {
+          UUID accountId = posting.accountId();
+          Balance current = balances.get(accountId);
+          if (current == null) {
+            current = transactionService.currentBalance(accountId);
+          }
+          if (undoable) {
+            previous.putIfAbsent(accountId, current);
+          }
+          Transaction transaction = transactionService.apply(posting, current, command.transferId);
+          balances.put(accountId, new Balance(transaction.balance(), transaction.createdAt()));
+          transactions.add(transaction);
+        }
+        applied.add(command);
+      } catch (RuntimeException e) {
+        balances.putAll(previous);
+        transactions.subList(appliedBefore, transactions.size()).clear();
+        command.fail(e);
+      }
+    }
+
+    private void store() {
+      if (transactions.isEmpty()) {
+        return;
+      }
+      try {
+        transactionService.storeAll(transactions);
+      } catch (RuntimeException e) {
+        applied.forEach(command -> command.fail(e));
+        return;
+      }
+      long stored = System.nanoTime();
+      int next = 0;
+      for (Command command : applied) {
+        int legs = command.postings.size();
+        command.result.complete(List.copyOf(transactions.subList(next, next + legs)));
+        next += legs;
+        postingLatency.record(stored - command.submittedNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package com.example.ledger.service;
+
+import com.example.ledger.models.StatementAggregate;
+import com.example.ledger.models.StatementPeriod;
+import com.example.ledger.models.Transaction;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Daily and monthly statement aggregates of each account, kept up to date as transactions are
+ * posted so a statement costs one read per bucket rather than a scan of the history.
+ *
+ * <p>Transactions posted by this process are added once they are stored, in the order each
+ * account's transactions were created. History that was already in the repository, such as
+ * transactions recovered from the journal, is folded in the first time an account's aggregates are
+ * read: everything created before the first transaction added here. The history is read and summed
+ * without holding the account's lock; transactions it holds that are only added later are
+ * recognised by their creation time and skipped.
+ */
+public final class StatementAggregates {
+  private final ConcurrentMap<UUID, AccountAggregates> accounts = new ConcurrentHashMap<>();
+  private final Function<UUID, List<Transaction>> history;
+
+  /**
+   * @param history reads an account's stored history, oldest first
+   */
+  public StatementAggregates(Function<UUID, List<Transaction>> history) {
+    this.history = history;
+  }
+
+  /** Adds a transaction once it is stored. */
+  void add(Transaction transaction) {
+    AccountAggregates aggregates =
+        accounts.computeIfAbsent(transaction.accountId(), id -> new AccountAggregates());
+    aggregates.lock.lock();
+    try {
+      if (aggregates.loaded) {
+        if (transaction.createdAt() <= aggregates.loadedUntil) {
+          return;
+        }
+      } else if (aggregates.firstAddedAt == Long.MAX_VALUE) {
+        aggregates.firstAddedAt = transaction.createdAt();
+      }
+      aggregates.add(transaction);
+    } finally {
+      aggregates.lock.unlock();
+    }
+  }
+
+  /**
+   * @param from only buckets holding this day or later, {@code null} for no lower bound
+   * @param to only buckets starting before this day, {@code null} for no upper bound
+   * @return the buckets with at least one transaction, oldest first
+   */
+  List<StatementAggregate> get(
+      UUID accountId, StatementPeriod period, LocalDate from, LocalDate to) {
+    // no entry for accounts without any transaction, so reads of unknown accounts add none
+    AccountAggregates aggregates = accounts.get(accountId);
+    if (aggregates == null || !aggregates.loaded) {
+      aggregates = load(accountId, aggregates);
+      if (aggregates == null) {
+        return List.of();
+      }
+    }
+    NavigableMap<LocalDate, StatementAggregate> buckets =
+        switch (period) {
+          case DAY -> aggregates.daily;
+          case MONTH -> aggregates.monthly;
+        };
+    if (from != null) {
+      buckets = buckets.tailMap(period.start(from), true);
+    }
+    if (to != null) {
+      buckets = buckets.headMap(to, false);
+    }
+    return new ArrayList<>(buckets.values());
+  }
+
+  /**
+   * @return the loaded aggregates, {@code null} if the account has no transactions at all
+   */
+  private AccountAggregates load(UUID accountId, AccountAggregates aggregates) {
+    List<Transaction> stored = history.apply(accountId);
+    if (aggregates == null) {
+      if (stored.isEmpty()) {
+        return null;
+      }
+      aggregates = accounts.computeIfAbsent(accountId, id -> new AccountAggregates());
+    }
+    while (true) {
+      // fold outside the lock, then merge only if no first transaction was added meanwhile
+      long cutoff = aggregates.firstAddedAt;
+      AccountAggregates folded = new AccountAggregates();
+      for (Transaction transaction : stored) {
+        if (transaction.createdAt() >= cutoff) {
+          break;
+        }
+        folded.add(transaction);
+        folded.loadedUntil = transaction.createdAt();
+      }
+      aggregates.lock.lock();
+      try {
+        if (aggregates.loaded) {
+          return aggregates;
+        }
+        if (aggregates.firstAddedAt == cutoff) {
+          aggregates.addAll(folded);
+          aggregates.loadedUntil = folded.loadedUntil;
+          aggregates.loaded = true;
+          return aggregates;
+        }
+      } finally {
+        aggregates.lock.unlock();
+      }
+    }
+  }
+
+  private static final class AccountAggregates {
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final NavigableMap<LocalDate, StatementAggregate> daily =
+        new ConcurrentSkipListMap<>();
+    private final NavigableMap<LocalDate, StatementAggregate> monthly =
+        new ConcurrentSkipListMap<>();
+    // creation time of the first transaction added, history from then on is added rather than read
+    private volatile long firstAddedAt = Long.MAX_VALUE;
+    // creation time of the last transaction folded in from the history
+    private long loadedUntil = Long.MIN_VALUE;
+    private volatile boolean loaded;
+
+    // callers must hold the lock, unless no other thread can see these aggregates yet
+    private void add(Transaction transaction) {
+      LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(transaction.createdAt(), MICROS_PER_DAY));
+      LocalDate month = StatementPeriod.MONTH.start(day);
+      daily.merge(day, StatementAggregate.of(day, transaction), StatementAggregate::plus);
+      monthly.merge(month, StatementAggregate.of(month, transaction), StatementAggregate::plus);
+    }
+
+    // callers must hold the lock
+    private void addAll(AccountAggregates other) {
+      other.daily.forEach((day, bucket) -> daily.merge(day, bucket, StatementAggregate::plus));
+      other.monthly.forEach(
+          (month, bucket) -> monthly.merge(month, bucket, StatementAggregate::plus));
+    }
+  }
+}
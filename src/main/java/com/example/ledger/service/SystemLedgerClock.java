@@ -0,0 +1,51 @@
+package com.example.ledger.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wall-clock time derived from {@link System#nanoTime()} and an epoch offset that is refreshed from
+ * the system clock once a second, so a timestamp costs neither an allocation nor a time-zone
+ * lookup. A timestamp that would not be ahead of the previous one, because two postings fall in the
+ * same microsecond or the wall clock stepped back, becomes the previous one plus one.
+ */
+public class SystemLedgerClock implements LedgerClock {
+  private static final long CALIBRATION_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+
+  private final AtomicLong last;
+  private volatile Calibration calibration = calibrate();
+
+  public SystemLedgerClock() {
+    this(Long.MIN_VALUE);
+  }
+
+  /**
+   * @param lastMicros a timestamp every one handed out must be ahead of, such as the newest one
+   *     recovered from an earlier run, so timestamps stay increasing across a wall clock step back
+   */
+  public SystemLedgerClock(long lastMicros) {
+    this.last = new AtomicLong(lastMicros);
+  }
+
+  // the epoch time in micros that corresponded to nanoTime
+  private record Calibration(long nanoTime, long epochMicros) {}
+
+  @Override
+  public long nextMicros() {
+    long nanoTime = System.nanoTime();
+    Calibration current = calibration;
+    if (nanoTime - current.nanoTime >= CALIBRATION_INTERVAL_NANOS) {
+      current = calibrate();
+      calibration = current;
+    }
+    long now = current.epochMicros + (nanoTime - current.nanoTime) / 1_000;
+    return last.accumulateAndGet(now, (previous, candidate) -> Math.max(previous + 1, candidate));
+  }
+
+  private static Calibration calibrate() {
+    Instant instant = Instant.now();
+    return new Calibration(
+        System.nanoTime(), instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000);
+  }
+}
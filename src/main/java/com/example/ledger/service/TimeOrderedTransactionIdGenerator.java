@@ -0,0 +1,27 @@
+package com.example.ledger.service;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Version 7 UUIDs (RFC 9562). The top 48 bits hold the creation time in epoch milliseconds, and the
+ * 12 bits after the version hold the fraction of that millisecond. Ids made from the unique {@link
+ * LedgerClock} timestamps therefore compare, with {@link UUID#compareTo}, in the order the
+ * transactions were created. The remaining 62 bits are random. They come from the calling thread's
+ * {@link ThreadLocalRandom}, so generating an id shares no state between threads.
+ */
+public class TimeOrderedTransactionIdGenerator implements TransactionIdGenerator {
+  private static final long VERSION = 7L << 12;
+  private static final long VARIANT = 0x8000_0000_0000_0000L;
+  private static final long RANDOM_BITS = 0x3FFF_FFFF_FFFF_FFFFL;
+
+  @Override
+  public UUID nextId(long epochMicros) {
+    long millis = Math.floorDiv(epochMicros, 1_000);
+    // a thousand microseconds spread over 4096 steps, so distinct microseconds stay distinct
+    long fraction = Math.floorMod(epochMicros, 1_000) * 4_096 / 1_000;
+    long high = (millis << 16) | VERSION | fraction;
+    long low = VARIANT | (ThreadLocalRandom.current().nextLong() & RANDOM_BITS);
+    return new UUID(high, low);
+  }
+}
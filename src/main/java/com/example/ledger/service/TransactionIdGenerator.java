@@ -0,0 +1,9 @@
+package com.example.ledger.service;
+
+import java.util.UUID;
+
+/** Source of transaction and transfer ids. */
+public interface TransactionIdGenerator {
+  /** Returns a new id for a transaction created at {@code epochMicros}. */
+  UUID nextId(long epochMicros);
+}
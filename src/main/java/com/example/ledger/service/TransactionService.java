@@ -1,73 +1,354 @@
 package com.example.ledger.service;
 
+import com.example.ledger.exceptions.BalanceOverflowException;
 import com.example.ledger.exceptions.InsufficientFundsException;
+import com.example.ledger.exceptions.InvalidTransferException;
 import com.example.ledger.models.Balance;
+import com.example.ledger.models.Posting;
+import com.example.ledger.models.PostingOutcome;
+import com.example.ledger.models.StatementAggregate;
+import com.example.ledger.models.StatementPeriod;
 import com.example.ledger.models.Transaction;
+import com.example.ledger.models.TransactionPage;
+import com.example.ledger.models.Transfer;
 import com.example.ledger.repository.TransactionRepository;
-import java.time.OffsetDateTime;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import org.springframework.stereotype.Service;
 
+/**
+ * Applies postings to balances and stores the resulting transactions. Every operation is timed as
+ * {@code ledger.operation.latency}, tagged with the operation, by meters registered up front so
+ * recording them allocates nothing.
+ */
 @Service
 public class TransactionService {
+  // one paged history read in this many records the history size
+  private static final int HISTORY_SIZE_SAMPLING = 16;
+
   private final TransactionRepository transactionRepository;
   private final BalanceService balanceService;
+  private final AccountLocks accountLocks;
+  private final LedgerClock ledgerClock;
+  private final TransactionIdGenerator idGenerator;
+  private final StatementAggregates statementAggregates;
+  private final Timer depositLatency;
+  private final Timer withdrawalLatency;
+  private final Timer batchLatency;
+  private final Timer transferLatency;
+  private final Timer historyLatency;
+  private final Timer statementLatency;
+  private final Timer balanceAsOfLatency;
+  private final Counter insufficientFunds;
+  private final Counter balanceOverflows;
+  private final DistributionSummary historySize;
 
   public TransactionService(
-      TransactionRepository transactionRepository, BalanceService balanceService) {
+      TransactionRepository transactionRepository,
+      BalanceService balanceService,
+      AccountLocks accountLocks,
+      LedgerClock ledgerClock,
+      TransactionIdGenerator idGenerator,
+      StatementAggregates statementAggregates,
+      MeterRegistry meterRegistry) {
     this.transactionRepository = transactionRepository;
     this.balanceService = balanceService;
+    this.accountLocks = accountLocks;
+    this.ledgerClock = ledgerClock;
+    this.idGenerator = idGenerator;
+    this.statementAggregates = statementAggregates;
+    this.depositLatency = operationTimer("deposit", meterRegistry);
+    this.withdrawalLatency = operationTimer("withdrawal", meterRegistry);
+    this.batchLatency = operationTimer("batch", meterRegistry);
+    this.transferLatency = operationTimer("transfer", meterRegistry);
+    this.historyLatency = operationTimer("history", meterRegistry);
+    this.statementLatency = operationTimer("statement", meterRegistry);
+    this.balanceAsOfLatency = operationTimer("balance_as_of", meterRegistry);
+    this.insufficientFunds =
+        Counter.builder("ledger.postings.rejected")
+            .description("Withdrawals rejected because the balance was too low")
+            .tag("reason", "insufficient_funds")
+            .register(meterRegistry);
+    this.balanceOverflows =
+        Counter.builder("ledger.postings.rejected")
+            .description("Deposits rejected because the balance would overflow")
+            .tag("reason", "balance_overflow")
+            .register(meterRegistry);
+    this.historySize =
+        DistributionSummary.builder("ledger.history.size")
+            .description("Transactions in the history of each account read")
+            .publishPercentiles(0.5, 0.99)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
   }
 
-  public Transaction createDeposit(UUID accountId, Integer depositAmount) {
-    var transactionTimestamp = OffsetDateTime.now();
+  static Timer operationTimer(String operation, MeterRegistry meterRegistry) {
+    return Timer.builder("ledger.operation.latency")
+        .description("Time to complete a ledger operation, including waiting for locks")
+        .tag("operation", operation)
+        .publishPercentiles(0.5, 0.99, 0.999)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
 
-    // get the balance if it exists and update it, otherwise create a new balance. then store it.
-    Balance currentBalance = balanceService.getBalance(accountId);
-    Balance newBalance = new Balance(depositAmount + currentBalance.amount(), transactionTimestamp);
-    balanceService.saveBalance(accountId, newBalance);
+  public Transaction createDeposit(UUID accountId, long depositAmount) {
+    long start = System.nanoTime();
+    try {
+      // the whole read-modify-write runs under the account lock so concurrent postings are not lost
+      return accountLocks.withLock(
+          accountId, () -> post(Posting.deposit(accountId, depositAmount)));
+    } finally {
+      record(depositLatency, start);
+    }
+  }
 
-    // create and store the transaction
-    var transactionUUID = UUID.randomUUID();
-    Transaction transaction =
-        new Transaction(
-            transactionUUID,
-            accountId,
-            depositAmount,
-            Transaction.TransactionType.DEPOSIT,
-            newBalance.amount(),
-            transactionTimestamp);
-    return transactionRepository.addTransaction(transaction);
+  public Transaction createWithdrawal(UUID accountId, long withdrawalAmount) {
+    long start = System.nanoTime();
+    try {
+      return accountLocks.withLock(
+          accountId, () -> post(Posting.withdrawal(accountId, withdrawalAmount)));
+    } finally {
+      record(withdrawalLatency, start);
+    }
   }
 
-  public Transaction createWithdrawal(UUID accountId, Integer withdrawalAmount) {
-    var transactionTimestamp = OffsetDateTime.now();
+  /**
+   * Posts a batch, grouped by account: each account's postings are applied in batch order under a
+   * single acquisition of its lock and stored in one write. A posting rejected for insufficient
+   * funds or an overflowing balance is reported in its outcome and the rest of the batch carries
+   * on. So is a failed write: the postings of that account are reported rejected with the failure,
+   * while those of accounts already stored stay posted.
+   */
+  public List<PostingOutcome> postBatch(List<Posting> postings) {
+    long start = System.nanoTime();
+    Map<UUID, List<Integer>> indexesByAccount = new LinkedHashMap<>();
+    for (int i = 0; i < postings.size(); i++) {
+      indexesByAccount
+          .computeIfAbsent(postings.get(i).accountId(), accountId -> new ArrayList<>())
+          .add(i);
+    }
+    PostingOutcome[] outcomes = new PostingOutcome[postings.size()];
+    indexesByAccount.forEach(
+        (accountId, indexes) ->
+            accountLocks.withLock(
+                accountId, () -> postAccountBatch(accountId, postings, indexes, outcomes)));
+    record(batchLatency, start);
+    return List.of(outcomes);
+  }
 
-    // get the balance and check if it has sufficient funds
-    Balance currentBalance = balanceService.getBalance(accountId);
-    if (currentBalance.amount() < withdrawalAmount) {
-      throw new InsufficientFundsException(
-          "Balance must be greater than or equal to withdrawal amount");
+  /**
+   * Moves money between two accounts atomically: the withdrawal from the source and the deposit to
+   * the destination are applied under both account locks and stored in one write.
+   */
+  public Transfer transfer(UUID sourceAccountId, UUID destinationAccountId, long amount) {
+    validateTransfer(sourceAccountId, destinationAccountId);
+    long start = System.nanoTime();
+    try {
+      return accountLocks.withLocks(
+          sourceAccountId,
+          destinationAccountId,
+          () -> postTransfer(sourceAccountId, destinationAccountId, amount));
+    } finally {
+      record(transferLatency, start);
     }
-    Balance newBalance =
-        new Balance(currentBalance.amount() - withdrawalAmount, OffsetDateTime.now());
-    balanceService.saveBalance(accountId, newBalance);
-
-    // create and store the transaction
-    var transactionUUID = UUID.randomUUID();
-    Transaction transaction =
-        new Transaction(
-            transactionUUID,
-            accountId,
-            withdrawalAmount,
-            Transaction.TransactionType.WITHDRAWAL,
-            newBalance.amount(),
-            transactionTimestamp);
-    return transactionRepository.addTransaction(transaction);
   }
 
   public List<Transaction> getTransactions(UUID accountId) {
-    return transactionRepository.getTransactions(accountId);
+    long start = System.nanoTime();
+    List<Transaction> history = transactionRepository.getTransactions(accountId);
+    historySize.record(history.size());
+    record(historyLatency, start);
+    return history;
+  }
+
+  public TransactionPage getTransactions(
+      UUID accountId, int position, int limit, Long from, Long to) {
+    long start = System.nanoTime();
+    TransactionPage page =
+        transactionRepository.getTransactions(accountId, position, limit, from, to);
+    // a page does not hold the history size, so only a sample of reads pays for a count
+    if (ThreadLocalRandom.current().nextInt(HISTORY_SIZE_SAMPLING) == 0) {
+      historySize.record(transactionRepository.countTransactions(accountId));
+    }
+    record(historyLatency, start);
+    return page;
+  }
+
+  /**
+   * Returns the balance of an account at an instant: the balance after its last transaction created
+   * at or before {@code asOf}, in epoch microseconds, or zero if there was none.
+   */
+  public Balance getBalanceAsOf(UUID accountId, long asOf) {
+    long start = System.nanoTime();
+    try {
+      return transactionRepository
+          .getTransactionAsOf(accountId, asOf)
+          .map(transaction -> new Balance(transaction.balance(), transaction.createdAt()))
+          .orElseGet(() -> new Balance(0, asOf));
+    } finally {
+      record(balanceAsOfLatency, start);
+    }
+  }
+
+  /**
+   * Deposit and withdrawal totals of an account per day or month, read from aggregates maintained
+   * as postings are stored.
+   *
+   * @param from only buckets holding this day or later, {@code null} for no lower bound
+   * @param to only buckets starting before this day, {@code null} for no upper bound
+   */
+  public List<StatementAggregate> getStatement(
+      UUID accountId, StatementPeriod period, LocalDate from, LocalDate to) {
+    long start = System.nanoTime();
+    try {
+      return statementAggregates.get(accountId, period, from, to);
+    } finally {
+      record(statementLatency, start);
+    }
+  }
+
+  // callers must hold the account lock
+  private Transaction post(Posting posting) {
+    // get the balance if it exists, otherwise a new zero balance, and apply the posting to it
+    Transaction transaction = apply(posting, currentBalance(posting.accountId()));
+
+    // store the transaction first so a balance is never visible before the write that explains it
+    Transaction stored = transactionRepository.addTransaction(transaction);
+    balanceService.saveBalance(
+        transaction.accountId(), new Balance(transaction.balance(), transaction.createdAt()));
+    statementAggregates.add(transaction);
+    return stored;
+  }
+
+  // callers must hold the account lock
+  private Void postAccountBatch(
+      UUID accountId, List<Posting> postings, List<Integer> indexes, PostingOutcome[] outcomes) {
+    Balance balance = currentBalance(accountId);
+    List<Transaction> transactions = new ArrayList<>(indexes.size());
+    for (int index : indexes) {
+      try {
+        Transaction transaction = apply(postings.get(index), balance);
+        balance = new Balance(transaction.balance(), transaction.createdAt());
+        transactions.add(transaction);
+        outcomes[index] = PostingOutcome.posted(transaction);
+      } catch (InsufficientFundsException | BalanceOverflowException e) {
+        outcomes[index] = PostingOutcome.rejected(e);
+      }
+    }
+    if (!transactions.isEmpty()) {
+      try {
+        storeAll(transactions);
+      } catch (RuntimeException e) {
+        // nothing of this account was stored, unlike the accounts before it
+        for (int index : indexes) {
+          if (outcomes[index].isPosted()) {
+            outcomes[index] = PostingOutcome.rejected(e);
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  // callers must hold both account locks
+  private Transfer postTransfer(UUID sourceAccountId, UUID destinationAccountId, long amount) {
+    UUID transferId = newTransferId();
+    Transaction debit =
+        apply(
+            Posting.withdrawal(sourceAccountId, amount),
+            currentBalance(sourceAccountId),
+            transferId);
+    Transaction credit =
+        apply(
+            Posting.deposit(destinationAccountId, amount),
+            currentBalance(destinationAccountId),
+            transferId);
+    storeAll(List.of(debit, credit));
+    return new Transfer(transferId, debit, credit);
+  }
+
+  static void validateTransfer(UUID sourceAccountId, UUID destinationAccountId) {
+    if (sourceAccountId.equals(destinationAccountId)) {
+      throw new InvalidTransferException("Source and destination accounts must be different");
+    }
+  }
+
+  UUID newTransferId() {
+    return idGenerator.nextId(ledgerClock.nextMicros());
+  }
+
+  Balance currentBalance(UUID accountId) {
+    return balanceService.getBalance(accountId);
+  }
+
+  /** Builds the transaction resulting from a posting on top of a balance, without storing it. */
+  Transaction apply(Posting posting, Balance currentBalance) {
+    return apply(posting, currentBalance, null);
+  }
+
+  /** Same as {@link #apply(Posting, Balance)}, for one leg of the transfer {@code transferId}. */
+  Transaction apply(Posting posting, Balance currentBalance, UUID transferId) {
+    long transactionTimestamp = ledgerClock.nextMicros();
+
+    long newBalance =
+        switch (posting.type()) {
+          case DEPOSIT -> {
+            try {
+              yield Math.addExact(currentBalance.amount(), posting.amount());
+            } catch (ArithmeticException e) {
+              balanceOverflows.increment();
+              throw new BalanceOverflowException(
+                  "Deposit would take the balance past the largest amount an account can hold");
+            }
+          }
+          case WITHDRAWAL -> {
+            // check if the balance has sufficient funds
+            if (currentBalance.amount() < posting.amount()) {
+              insufficientFunds.increment();
+              throw new InsufficientFundsException(
+                  "Balance must be greater than or equal to withdrawal amount");
+            }
+            yield Math.subtractExact(currentBalance.amount(), posting.amount());
+          }
+        };
+
+    return new Transaction(
+        idGenerator.nextId(transactionTimestamp),
+        posting.accountId(),
+        posting.amount(),
+        posting.type(),
+        newBalance,
+        transactionTimestamp,
+        transferId);
+  }
+
+  /**
+   * Stores transactions that were applied in order as one batch: all the transactions, then the
+   * final balance of every account touched, in a single write each. Balances are only published
+   * once the transactions are in the store, so a failed write leaves them unchanged.
+   */
+  void storeAll(List<Transaction> transactions) {
+    Map<UUID, Balance> finalBalances = new LinkedHashMap<>();
+    for (Transaction transaction : transactions) {
+      finalBalances.put(
+          transaction.accountId(), new Balance(transaction.balance(), transaction.createdAt()));
+    }
+    transactionRepository.addTransactions(transactions);
+    balanceService.saveBalances(finalBalances);
+    transactions.forEach(statementAggregates::add);
+  }
+
+  private static void record(Timer timer, long startNanos) {
+    timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
   }
 }
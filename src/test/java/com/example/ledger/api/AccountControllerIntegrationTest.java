@@ -4,23 +4,27 @@ import com.example.ledger.models.Balance;
 import com.example.ledger.models.Transaction;
 import com.example.ledger.repository.BalanceRepository;
 import com.example.ledger.repository.TransactionRepository;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -30,6 +34,10 @@ class AccountControllerIntegrationTest {
   public static final String WITHDRAWALS_PATH = "/v1/accounts/{accountId}/withdrawals";
   public static final String BALANCE_PATH = "/v1/accounts/{accountId}/balance";
   public static final String TRANSACTIONS_PATH = "/v1/accounts/{accountId}/transactions";
+  public static final String SUMMARY_PATH = "/v1/accounts/{accountId}/summary";
+  public static final String EXPORT_PATH = "/v1/accounts/{accountId}/transactions/export";
+  public static final String POSTING_BATCH_PATH = "/v1/postings:batch";
+  public static final String TRANSFERS_PATH = "/v1/transfers";
 
   @Autowired
   private MockMvc mockMvc;
@@ -100,6 +108,70 @@ class AccountControllerIntegrationTest {
   }
 
 
+  @Test
+  void createDeposit_ShouldReturnOriginalTransaction_WhenIdempotencyKeyIsRepeated() throws Exception {
+    // Given
+    UUID accountId = UUID.randomUUID();
+    String idempotencyKey = UUID.randomUUID().toString();
+    String requestBody = """
+            { "amount": 5000 }
+            """;
+    MvcResult first =
+        mockMvc
+            .perform(
+                post(DEPOSITS_PATH, accountId)
+                    .header("Idempotency-Key", idempotencyKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(requestBody))
+            .andExpect(status().isCreated())
+            .andReturn();
+    String transactionId = JsonPath.read(first.getResponse().getContentAsString(), "$.id");
+
+    // When - The same deposit is retried
+    mockMvc
+        .perform(
+            post(DEPOSITS_PATH, accountId)
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestBody))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.id").value(transactionId))
+        .andExpect(jsonPath("$.balance").value(5000));
+
+    // Then - The balance was only credited once
+    mockMvc
+        .perform(get(BALANCE_PATH, accountId))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.amount").value(5000));
+  }
+
+  @Test
+  void createDeposit_ShouldReturn422_WhenIdempotencyKeyIsReusedForDifferentAmount() throws Exception {
+    // Given
+    UUID accountId = UUID.randomUUID();
+    String idempotencyKey = UUID.randomUUID().toString();
+    mockMvc
+        .perform(
+            post(DEPOSITS_PATH, accountId)
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    { "amount": 5000 }
+                    """))
+        .andExpect(status().isCreated());
+
+    // When & Then
+    mockMvc
+        .perform(
+            post(DEPOSITS_PATH, accountId)
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    { "amount": 7000 }
+                    """))
+        .andExpect(status().isUnprocessableEntity());
+  }
+
   // WITHDRAWALS
   @Test
   void createWithdrawal_ShouldReturn201_WhenValidWithdrawalRequest() throws Exception {
@@ -196,6 +268,45 @@ class AccountControllerIntegrationTest {
             .andExpect(jsonPath("$.message").value("Balance must be greater than or equal to withdrawal amount"));
   }
 
+  @Test
+  void createDeposit_ShouldReturn400AndKeepBalance_WhenBalanceWouldOverflow() throws Exception {
+    // Given - a balance 100 short of the largest one an account can hold
+    UUID accountId = UUID.randomUUID();
+    setInitialBalance(accountId, Long.MAX_VALUE - 100);
+
+    // When & Then
+    mockMvc
+        .perform(
+            post(DEPOSITS_PATH, accountId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    { "amount": 101 }
+                    """))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Deposit would take the balance past the largest amount an account can hold"));
+    assertEquals(Long.MAX_VALUE - 100, balanceRepository.getBalance(accountId).orElseThrow().amount());
+    assertTrue(transactionRepository.getTransactions(accountId).isEmpty());
+  }
+
+  @Test
+  void createDeposit_ShouldAcceptAmountsBeyond32Bits() throws Exception {
+    // Given
+    UUID accountId = UUID.randomUUID();
+    setInitialBalance(accountId, 3_000_000_000L);
+
+    // When & Then
+    mockMvc
+        .perform(
+            post(DEPOSITS_PATH, accountId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    { "amount": 3000000000 }
+                    """))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.amount").value(3_000_000_000L))
+        .andExpect(jsonPath("$.balance").value(6_000_000_000L));
+  }
+
   // GET BALANCE TESTS
   @Test
   void getBalance_ShouldReturnZeroBalance_WhenBalanceWasNotInitiated() throws Exception {
@@ -208,6 +319,7 @@ class AccountControllerIntegrationTest {
         .andExpect(status().isOk())
         .andExpect(content().contentType(MediaType.APPLICATION_JSON))
         .andExpect(jsonPath("$.amount").value(0));
+    assertTrue(balanceRepository.getBalance(accountId).isEmpty());
   }
 
   @Test
@@ -247,7 +359,7 @@ class AccountControllerIntegrationTest {
     // Given
     UUID accountId = UUID.randomUUID();
     Integer depositAmount = 10000;
-    var transaction = new Transaction(UUID.randomUUID(), accountId, depositAmount, Transaction.TransactionType.DEPOSIT, depositAmount, OffsetDateTime.now());
+    var transaction = new Transaction(UUID.randomUUID(), accountId, depositAmount, Transaction.TransactionType.DEPOSIT, depositAmount, System.currentTimeMillis() * 1_000);
     transactionRepository.addTransaction(transaction);
 
     // When & Then
@@ -271,11 +383,11 @@ class AccountControllerIntegrationTest {
     Integer firstDepositAmount = 15000;
     Integer withdrawalAmount = 5000;
     Integer secondDepositAmount = 8000;
-    var transaction = new Transaction(UUID.randomUUID(), accountId, firstDepositAmount, Transaction.TransactionType.DEPOSIT, firstDepositAmount, OffsetDateTime.now());
+    var transaction = new Transaction(UUID.randomUUID(), accountId, firstDepositAmount, Transaction.TransactionType.DEPOSIT, firstDepositAmount, System.currentTimeMillis() * 1_000);
     transactionRepository.addTransaction(transaction);
-    transaction = new Transaction(UUID.randomUUID(), accountId, withdrawalAmount, Transaction.TransactionType.WITHDRAWAL, firstDepositAmount - withdrawalAmount, OffsetDateTime.now());
+    transaction = new Transaction(UUID.randomUUID(), accountId, withdrawalAmount, Transaction.TransactionType.WITHDRAWAL, firstDepositAmount - withdrawalAmount, System.currentTimeMillis() * 1_000);
     transactionRepository.addTransaction(transaction);
-    transaction = new Transaction(UUID.randomUUID(), accountId, secondDepositAmount, Transaction.TransactionType.DEPOSIT, firstDepositAmount - withdrawalAmount + secondDepositAmount, OffsetDateTime.now());
+    transaction = new Transaction(UUID.randomUUID(), accountId, secondDepositAmount, Transaction.TransactionType.DEPOSIT, firstDepositAmount - withdrawalAmount + secondDepositAmount, System.currentTimeMillis() * 1_000);
     transactionRepository.addTransaction(transaction);
 
     // When & Then
@@ -300,9 +412,9 @@ class AccountControllerIntegrationTest {
     UUID secondAccountId = UUID.randomUUID();
     Integer firstAccountDepositAmount = 12000;
     Integer secondAccountDepositAmount = 8000;
-    var transaction = new Transaction(UUID.randomUUID(), firstAccountId, firstAccountDepositAmount, Transaction.TransactionType.WITHDRAWAL, firstAccountDepositAmount, OffsetDateTime.now());
+    var transaction = new Transaction(UUID.randomUUID(), firstAccountId, firstAccountDepositAmount, Transaction.TransactionType.WITHDRAWAL, firstAccountDepositAmount, System.currentTimeMillis() * 1_000);
     transactionRepository.addTransaction(transaction);
-    transaction = new Transaction(UUID.randomUUID(), secondAccountId, secondAccountDepositAmount, Transaction.TransactionType.WITHDRAWAL, firstAccountDepositAmount + secondAccountDepositAmount, OffsetDateTime.now());
+    transaction = new Transaction(UUID.randomUUID(), secondAccountId, secondAccountDepositAmount, Transaction.TransactionType.WITHDRAWAL, firstAccountDepositAmount + secondAccountDepositAmount, System.currentTimeMillis() * 1_000);
     transactionRepository.addTransaction(transaction);
 
     // When - Get transactions for first account
@@ -324,7 +436,276 @@ class AccountControllerIntegrationTest {
         .andExpect(jsonPath("$.transactions[0].amount").value(secondAccountDepositAmount));
   }
 
-  private void setInitialBalance(UUID accountId, Integer amount) {
-    balanceRepository.saveBalance(accountId, new Balance(amount, OffsetDateTime.now()));
+  @Test
+  void getTransactions_ShouldReturnPagesLinkedByCursor_WhenLimitIsSet() throws Exception {
+    // Given
+    UUID accountId = UUID.randomUUID();
+    for (int i = 1; i <= 3; i++) {
+      transactionRepository.addTransaction(new Transaction(UUID.randomUUID(), accountId, i, Transaction.TransactionType.DEPOSIT, i, System.currentTimeMillis() * 1_000));
+    }
+
+    // When - Get the first page
+    String firstPage = mockMvc
+        .perform(get(TRANSACTIONS_PATH, accountId).param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.transactions.length()").value(2))
+        .andExpect(jsonPath("$.transactions[0].amount").value(1))
+        .andExpect(jsonPath("$.transactions[1].amount").value(2))
+        .andExpect(jsonPath("$.nextCursor").exists())
+        .andReturn().getResponse().getContentAsString();
+    String nextCursor = JsonPath.read(firstPage, "$.nextCursor");
+
+    // Then - The cursor leads to the last page
+    mockMvc
+        .perform(get(TRANSACTIONS_PATH, accountId).param("limit", "2").param("cursor", nextCursor))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.transactions.length()").value(1))
+        .andExpect(jsonPath("$.transactions[0].amount").value(3))
+        .andExpect(jsonPath("$.nextCursor").doesNotExist());
+  }
+
+  @Test
+  void getTransactions_ShouldReturnOnlyTransactionsInRange_WhenFromAndToAreSet() throws Exception {
+    // Given
+    UUID accountId = UUID.randomUUID();
+    OffsetDateTime start = OffsetDateTime.parse("2025-09-01T00:00:00Z");
+    for (int day = 0; day < 5; day++) {
+      transactionRepository.addTransaction(new Transaction(UUID.randomUUID(), accountId, day + 1, Transaction.TransactionType.DEPOSIT, day + 1, micros(start.plusDays(day))));
+    }
+
+    // When & Then
+    mockMvc
+        .perform(get(TRANSACTIONS_PATH, accountId)
+            .param("from", "2025-09-02T00:00:00Z")
+            .param("to", "2025-09-04T00:00:00Z"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.transactions.length()").value(2))
+        .andExpect(jsonPath("$.transactions[0].amount").value(2))
+        .andExpect(jsonPath("$.transactions[1].amount").value(3))
+        .andExpect(jsonPath("$.nextCursor").doesNotExist());
+  }
+
+  @Test
+  void getTransactions_ShouldReturn400_WhenCursorIsInvalid() throws Exception {
+    // Given
+    UUID accountId = UUID.randomUUID();
+
+    // When & Then
+    mockMvc
+        .perform(get(TRANSACTIONS_PATH, accountId).param("cursor", "not a cursor"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Cursor is not valid"));
+  }
+
+  @Test
+  void getBalance_ShouldReturnBalanceAtInstant_WhenAsOfIsSet() throws Exception {
+    // Given
+    UUID accountId = UUID.randomUUID();
+    OffsetDateTime start = OffsetDateTime.parse("2025-09-01T00:00:00Z");
+    for (int day = 0; day < 5; day++) {
+      transactionRepository.addTransaction(new Transaction(UUID.randomUUID(), accountId, 100, Transaction.TransactionType.DEPOSIT, (day + 1) * 100, micros(start.plusDays(day))));
+    }
+
+    // When & Then
+    mockMvc
+        .perform(get(BALANCE_PATH, accountId).param("asOf", "2025-09-03T12:00:00Z"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.amount").value(300));
+    mockMvc
+        .perform(get(BALANCE_PATH, accountId).param("asOf", "2025-08-31T00:00:00Z"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.amount").value(0));
+  }
+
+  // GET SUMMARY TESTS
+  @Test
+  void getSummary_ShouldIncludeStoredHistoryAndNewPostings() throws Exception {
+    // Given - history already in the repository, as after a recovery, and then a new withdrawal
+    UUID accountId = UUID.randomUUID();
+    OffsetDateTime start = OffsetDateTime.parse("2025-09-01T10:00:00Z");
+    for (int day = 0; day < 5; day++) {
+      transactionRepository.addTransaction(new Transaction(UUID.randomUUID(), accountId, day + 1, Transaction.TransactionType.DEPOSIT, (day + 1) * (day + 2) / 2, micros(start.plusDays(day))));
+    }
+    setInitialBalance(accountId, 15);
+    mockMvc
+        .perform(
+            post(WITHDRAWALS_PATH, accountId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    { "amount": 4 }
+                    """))
+        .andExpect(status().isCreated());
+
+    // When & Then
+    mockMvc
+        .perform(get(SUMMARY_PATH, accountId).param("period", "MONTH"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.period").value("MONTH"))
+        .andExpect(jsonPath("$.buckets.length()").value(2))
+        .andExpect(jsonPath("$.buckets[0].start").value("2025-09-01"))
+        .andExpect(jsonPath("$.buckets[0].depositTotal").value(15))
+        .andExpect(jsonPath("$.buckets[0].depositCount").value(5))
+        .andExpect(jsonPath("$.buckets[0].withdrawalCount").value(0))
+        .andExpect(jsonPath("$.buckets[0].minBalance").value(1))
+        .andExpect(jsonPath("$.buckets[0].maxBalance").value(15))
+        .andExpect(jsonPath("$.buckets[1].withdrawalTotal").value(4))
+        .andExpect(jsonPath("$.buckets[1].withdrawalCount").value(1))
+        .andExpect(jsonPath("$.buckets[1].minBalance").value(11));
+  }
+
+  @Test
+  void getSummary_ShouldReturnOnlyBucketsInRange_WhenFromAndToAreSet() throws Exception {
+    // Given
+    UUID accountId = UUID.randomUUID();
+    OffsetDateTime start = OffsetDateTime.parse("2025-09-01T10:00:00Z");
+    for (int day = 0; day < 5; day++) {
+      transactionRepository.addTransaction(new Transaction(UUID.randomUUID(), accountId, day + 1, Transaction.TransactionType.DEPOSIT, day + 1, micros(start.plusDays(day))));
+    }
+
+    // When & Then
+    mockMvc
+        .perform(get(SUMMARY_PATH, accountId)
+            .param("period", "DAY")
+            .param("from", "2025-09-02")
+            .param("to", "2025-09-04"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.buckets.length()").value(2))
+        .andExpect(jsonPath("$.buckets[0].start").value("2025-09-02"))
+        .andExpect(jsonPath("$.buckets[0].depositTotal").value(2))
+        .andExpect(jsonPath("$.buckets[1].start").value("2025-09-03"));
+  }
+
+  // EXPORT TRANSACTIONS TESTS
+  @Test
+  void exportTransactions_ShouldStreamOneJsonLinePerTransaction() throws Exception {
+    // Given
+    UUID accountId = UUID.randomUUID();
+    for (int i = 1; i <= 3; i++) {
+      transactionRepository.addTransaction(new Transaction(UUID.randomUUID(), accountId, i, Transaction.TransactionType.DEPOSIT, i, System.currentTimeMillis() * 1_000));
+    }
+
+    // When
+    MvcResult mvcResult = mockMvc
+        .perform(get(EXPORT_PATH, accountId))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Then
+    String body = mockMvc
+        .perform(asyncDispatch(mvcResult))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+        .andReturn().getResponse().getContentAsString();
+    String[] lines = body.split("\n");
+    assertEquals(3, lines.length);
+    assertTrue(body.endsWith("\n"));
+    for (int i = 0; i < lines.length; i++) {
+      assertEquals(i + 1, (Integer) JsonPath.read(lines[i], "$.amount"));
+      assertEquals("DEPOSIT", JsonPath.read(lines[i], "$.type"));
+    }
+  }
+
+  // POSTING BATCH TESTS
+  @Test
+  void createPostingBatch_ShouldReturnResultPerPosting_WhenSomePostingsAreRejected() throws Exception {
+    // Given
+    UUID firstAccountId = UUID.randomUUID();
+    UUID secondAccountId = UUID.randomUUID();
+    String requestBody = """
+            { "postings": [
+                { "accountId": "%1$s", "type": "DEPOSIT", "amount": 100 },
+                { "accountId": "%2$s", "type": "WITHDRAWAL", "amount": 50 },
+                { "accountId": "%1$s", "type": "WITHDRAWAL", "amount": 30 }
+            ] }
+            """.formatted(firstAccountId, secondAccountId);
+
+    // When & Then
+    mockMvc
+        .perform(
+            post(POSTING_BATCH_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestBody))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.results.length()").value(3))
+        .andExpect(jsonPath("$.results[0].status").value("POSTED"))
+        .andExpect(jsonPath("$.results[0].transaction.balance").value(100))
+        .andExpect(jsonPath("$.results[1].status").value("REJECTED"))
+        .andExpect(jsonPath("$.results[1].error.message").value("Balance must be greater than or equal to withdrawal amount"))
+        .andExpect(jsonPath("$.results[2].status").value("POSTED"))
+        .andExpect(jsonPath("$.results[2].transaction.balance").value(70));
+
+    assertEquals(70, balanceRepository.getBalance(firstAccountId).orElseThrow().amount());
+    assertTrue(transactionRepository.getTransactions(secondAccountId).isEmpty());
+  }
+
+  @Test
+  void createPostingBatch_ShouldReturn400_WhenBatchIsEmpty() throws Exception {
+    mockMvc
+        .perform(
+            post(POSTING_BATCH_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"postings\": [] }"))
+        .andExpect(status().isBadRequest());
+  }
+
+  // TRANSFER TESTS
+  @Test
+  void createTransfer_ShouldReturn201AndMoveMoney_WhenSourceHasFunds() throws Exception {
+    // Given
+    UUID sourceAccountId = UUID.randomUUID();
+    UUID destinationAccountId = UUID.randomUUID();
+    setInitialBalance(sourceAccountId, 10000);
+    String requestBody = """
+            { "sourceAccountId": "%s", "destinationAccountId": "%s", "amount": 2500 }
+            """.formatted(sourceAccountId, destinationAccountId);
+
+    // When & Then
+    mockMvc
+        .perform(
+            post(TRANSFERS_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestBody))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.id").exists())
+        .andExpect(jsonPath("$.debit.type").value("WITHDRAWAL"))
+        .andExpect(jsonPath("$.debit.balance").value(7500))
+        .andExpect(jsonPath("$.credit.type").value("DEPOSIT"))
+        .andExpect(jsonPath("$.credit.balance").value(2500));
+
+    assertEquals(7500, balanceRepository.getBalance(sourceAccountId).orElseThrow().amount());
+    assertEquals(2500, balanceRepository.getBalance(destinationAccountId).orElseThrow().amount());
+    assertEquals(
+        transactionRepository.getTransactions(sourceAccountId).get(0).transferId(),
+        transactionRepository.getTransactions(destinationAccountId).get(0).transferId());
+  }
+
+  @Test
+  void createTransfer_ShouldReturn400AndStoreNothing_WhenSourceHasInsufficientFunds() throws Exception {
+    // Given
+    UUID sourceAccountId = UUID.randomUUID();
+    UUID destinationAccountId = UUID.randomUUID();
+    setInitialBalance(sourceAccountId, 1000);
+    String requestBody = """
+            { "sourceAccountId": "%s", "destinationAccountId": "%s", "amount": 2500 }
+            """.formatted(sourceAccountId, destinationAccountId);
+
+    // When & Then
+    mockMvc
+        .perform(
+            post(TRANSFERS_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestBody))
+        .andExpect(status().isBadRequest());
+
+    assertEquals(1000, balanceRepository.getBalance(sourceAccountId).orElseThrow().amount());
+    assertTrue(transactionRepository.getTransactions(destinationAccountId).isEmpty());
+  }
+
+  private void setInitialBalance(UUID accountId, long amount) {
+    balanceRepository.saveBalance(accountId, new Balance(amount, System.currentTimeMillis() * 1_000));
+  }
+
+  private static long micros(OffsetDateTime time) {
+    return time.toEpochSecond() * 1_000_000 + time.getNano() / 1_000;
   }
 }
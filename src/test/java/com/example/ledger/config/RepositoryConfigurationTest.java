@@ -0,0 +1,135 @@
+package com.example.ledger.config;
+
+import com.example.ledger.journal.BalanceCheckpointer;
+import com.example.ledger.journal.BalanceSnapshotStore;
+import com.example.ledger.journal.FsyncPolicy;
+import com.example.ledger.journal.TransactionJournal;
+import com.example.ledger.models.Transaction;
+import com.example.ledger.repository.MapBalanceRepository;
+import com.example.ledger.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositoryConfigurationTest {
+
+    private static final long HOUR_MICROS = Duration.ofHours(1).toNanos() / 1_000;
+
+    @TempDir
+    Path directory;
+
+    private TransactionJournal journal;
+    private BalanceSnapshotStore snapshotStore;
+    private LedgerProperties properties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journal = TransactionJournal.open(
+            directory.resolve("journal"), 1 << 16, FsyncPolicy.PER_BATCH, Duration.ofMillis(10));
+        snapshotStore = new BalanceSnapshotStore(directory.resolve("snapshots"), 2);
+        // no background compaction, so only recovery moves history to disk
+        LedgerProperties.Tiering tiering = new LedgerProperties.Tiering(
+            directory.resolve("cold"), Duration.ofDays(1), Duration.ofHours(1), Duration.ZERO);
+        properties = new LedgerProperties(
+            new LedgerProperties.Repository(
+                LedgerProperties.TransactionStore.TIERED, LedgerProperties.BalanceStore.MAP, 1_000, null, tiering),
+            null, null, null, null, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    void storedTransactions_RecoveringOldHistoryIntoTieredStore_MovesItToColdSegments() throws IOException {
+        // Given - two postings from three days ago and one from now
+        UUID accountId = UUID.randomUUID();
+        long now = System.currentTimeMillis() * 1_000;
+        long threeDaysAgo = startOfHour(now - 72 * HOUR_MICROS);
+        List<Transaction> written = List.of(
+            deposit(accountId, 100, 100, threeDaysAgo),
+            deposit(accountId, 50, 150, threeDaysAgo + 1),
+            deposit(accountId, 25, 175, now));
+        journal.appendAll(written);
+
+        // When
+        TransactionRepository repository = storedTransactions().repository();
+
+        // Then - the old postings are on disk before anything is served
+        assertEquals(1, coldSegments("live"));
+        assertEquals(written, repository.getTransactions(accountId));
+    }
+
+    @Test
+    void storedTransactions_BackfillingOldHistoryIntoTieredArchive_MovesItToColdSegmentsBeforeReads()
+        throws IOException {
+        // Given - old postings before a snapshot, a recent one after it
+        UUID accountId = UUID.randomUUID();
+        long now = System.currentTimeMillis() * 1_000;
+        long threeDaysAgo = startOfHour(now - 72 * HOUR_MICROS);
+        Transaction recent = deposit(accountId, 25, 175, now);
+        journal.appendAll(List.of(
+            deposit(accountId, 100, 100, threeDaysAgo),
+            deposit(accountId, 50, 150, threeDaysAgo + 1)));
+        try (BalanceCheckpointer checkpointer = new BalanceCheckpointer(journal, snapshotStore, Duration.ofHours(1))) {
+            checkpointer.checkpoint();
+        }
+        journal.append(recent);
+
+        // When - a history read waits for the archive
+        List<Transaction> history = storedTransactions().repository().getTransactions(accountId);
+
+        // Then - which was compacted before the read was let through
+        assertEquals(3, history.size());
+        assertEquals(recent, history.get(2));
+        assertEquals(1, coldSegments("archive"));
+        assertEquals(0, coldSegments("live"));
+    }
+
+    private RepositoryConfiguration.StoredTransactions storedTransactions() throws IOException {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("transactionJournal", journal);
+        beans.addBean("balanceSnapshotStore", snapshotStore);
+        return new RepositoryConfiguration().storedTransactions(
+            properties,
+            new MapBalanceRepository(new ConcurrentHashMap<>()),
+            beans.getBeanProvider(TransactionJournal.class),
+            beans.getBeanProvider(BalanceSnapshotStore.class));
+    }
+
+    // both old postings then fall in one bucket, so they are written to one segment file
+    private static long startOfHour(long micros) {
+        return micros - Math.floorMod(micros, HOUR_MICROS);
+    }
+
+    private long coldSegments(String store) throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve("cold").resolve(store))) {
+            return files.count();
+        }
+    }
+
+    private static Transaction deposit(UUID accountId, long amount, long balance, long createdAt) {
+        return new Transaction(
+            UUID.randomUUID(),
+            accountId,
+            amount,
+            Transaction.TransactionType.DEPOSIT,
+            balance,
+            createdAt
+        );
+    }
+}
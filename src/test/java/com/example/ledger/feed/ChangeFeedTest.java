@@ -0,0 +1,209 @@
+package com.example.ledger.feed;
+
+import com.example.ledger.exceptions.SequenceExpiredException;
+import com.example.ledger.models.Transaction;
+import com.example.ledger.repository.PartitionedTransactionRepository;
+import com.example.ledger.repository.PublishingTransactionRepository;
+import com.example.ledger.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+
+    private ChangeFeed changeFeed;
+    private TransactionRepository transactionRepository;
+
+    @BeforeEach
+    void setUp() {
+        changeFeed = new ChangeFeed(4, 100);
+        transactionRepository =
+            new PublishingTransactionRepository(new PartitionedTransactionRepository(new ConcurrentHashMap<>()), changeFeed);
+    }
+
+    @Test
+    void read_AfterStoredTransactions_ReturnsThemWithConsecutiveSequences() {
+        // Given
+        Transaction first = deposit(100);
+        Transaction second = deposit(200);
+        Transaction third = deposit(300);
+        transactionRepository.addTransaction(first);
+        transactionRepository.addTransactions(List.of(second, third));
+
+        // When
+        ChangeFeed.Change[] changes = new ChangeFeed.Change[10];
+        int count = changeFeed.read(99, changes);
+
+        // Then
+        assertEquals(3, count);
+        assertEquals(new ChangeFeed.Change(100, first), changes[0]);
+        assertEquals(new ChangeFeed.Change(101, second), changes[1]);
+        assertEquals(new ChangeFeed.Change(102, third), changes[2]);
+        assertEquals(102, changeFeed.lastSequence());
+    }
+
+    @Test
+    void read_FromMiddle_ResumesAfterSequenceAndFillsAtMostArray() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            transactionRepository.addTransaction(deposit(i));
+        }
+
+        // When
+        ChangeFeed.Change[] changes = new ChangeFeed.Change[2];
+        int count = changeFeed.read(100, changes);
+
+        // Then
+        assertEquals(2, count);
+        assertEquals(101, changes[0].sequence());
+        assertEquals(102, changes[1].sequence());
+        assertEquals(0, changeFeed.read(103, changes));
+    }
+
+    @Test
+    void read_WhenConsumerFellBehindTheRing_Throws() {
+        // Given - six changes through a ring of four
+        for (int i = 0; i < 6; i++) {
+            transactionRepository.addTransaction(deposit(i));
+        }
+
+        // When & Then - 102 to 105 are retained, so resuming after 101 still works
+        assertThrows(SequenceExpiredException.class, () -> changeFeed.read(100, new ChangeFeed.Change[4]));
+        assertEquals(4, changeFeed.read(101, new ChangeFeed.Change[4]));
+    }
+
+    @Test
+    void read_AfterSequenceBeyondTheLastChange_Throws() {
+        // Given - a consumer resuming with an event id from an earlier run that got further
+        transactionRepository.addTransaction(deposit(1));
+
+        // When & Then
+        assertThrows(SequenceExpiredException.class, () -> changeFeed.read(101, new ChangeFeed.Change[4]));
+        assertEquals(0, changeFeed.read(100, new ChangeFeed.Change[4]));
+    }
+
+    @Test
+    void publish_FromConcurrentWriters_NumbersEveryChangeOnce() throws Exception {
+        // Given
+        ChangeFeed feed = new ChangeFeed(40_000, 0);
+        int writers = 4;
+        int changesPerWriter = 10_000;
+        List<Thread> threads = new ArrayList<>();
+
+        // When - half of the writers publish in pairs
+        for (int writer = 0; writer < writers; writer++) {
+            boolean pairs = writer % 2 == 0;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < changesPerWriter; i += pairs ? 2 : 1) {
+                    if (pairs) {
+                        feed.publishAll(List.of(deposit(i), deposit(i + 1)));
+                    } else {
+                        feed.publish(deposit(i));
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        ChangeFeed.Change[] changes = new ChangeFeed.Change[writers * changesPerWriter];
+        assertEquals(changes.length - 1, feed.lastSequence());
+        assertEquals(changes.length, feed.read(-1, changes));
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < changes.length; i++) {
+            assertEquals(i, changes[i].sequence());
+            assertTrue(ids.add(changes[i].transaction().id()));
+        }
+    }
+
+    @Test
+    void publishAll_WhenAWriterStallsForAWholeLap_KeepsTheNewerChanges() throws Exception {
+        // Given - a writer that claims sequence 0 and stalls before writing its slot
+        ChangeFeed feed = new ChangeFeed(2, 0);
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        Transaction stalled = deposit(0);
+        Thread writer = new Thread(() -> feed.publishAll(new AbstractList<>() {
+            @Override
+            public Transaction get(int index) {
+                claimed.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return stalled;
+            }
+
+            @Override
+            public int size() {
+                return 1;
+            }
+        }));
+        writer.start();
+        claimed.await();
+
+        // When - the ring is lapped meanwhile, then the writer carries on
+        Transaction first = deposit(1);
+        Transaction second = deposit(2);
+        feed.publish(first);
+        feed.publish(second);
+        resume.countDown();
+        writer.join();
+        Transaction third = deposit(3);
+        feed.publish(third);
+
+        // Then
+        ChangeFeed.Change[] changes = new ChangeFeed.Change[2];
+        assertEquals(3, feed.lastSequence());
+        assertEquals(2, feed.read(1, changes));
+        assertEquals(new ChangeFeed.Change(2, second), changes[0]);
+        assertEquals(new ChangeFeed.Change(3, third), changes[1]);
+    }
+
+    @Test
+    void awaitAfter_WhenChangeIsPublished_ReturnsTrue() throws Exception {
+        // Given
+        CompletableFuture<Boolean> awaited = CompletableFuture.supplyAsync(() -> {
+            try {
+                return changeFeed.awaitAfter(99, Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // When
+        transactionRepository.addTransaction(deposit(1));
+
+        // Then
+        assertTrue(awaited.get(10, TimeUnit.SECONDS));
+        assertFalse(changeFeed.awaitAfter(100, Duration.ofMillis(10)));
+    }
+
+    private static Transaction deposit(Integer amount) {
+        return new Transaction(
+            UUID.randomUUID(),
+            UUID.randomUUID(),
+            amount,
+            Transaction.TransactionType.DEPOSIT,
+            amount,
+            System.currentTimeMillis() * 1_000
+        );
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.models.Transaction;
+import com.example.ledger.repository.JournaledTransactionRepository;
+import com.example.ledger.repository.MapBalanceRepository;
+import com.example.ledger.repository.PartitionedTransactionRepository;
+import com.example.ledger.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceCheckpointerTest {
+
+    @TempDir
+    Path directory;
+
+    private TransactionJournal journal;
+    private BalanceSnapshotStore snapshotStore;
+    private BalanceCheckpointer checkpointer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journal = TransactionJournal.open(directory, 1 << 16, FsyncPolicy.PER_BATCH, Duration.ofMillis(10));
+        snapshotStore = new BalanceSnapshotStore(directory.resolve("snapshots"), 2);
+        // long interval: the tests trigger checkpoints themselves
+        checkpointer = new BalanceCheckpointer(journal, snapshotStore, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        checkpointer.close();
+        journal.close();
+    }
+
+    @Test
+    void recover_FromSnapshot_ReplaysOnlyTheJournalTail() throws IOException {
+        // Given
+        UUID firstAccountId = UUID.randomUUID();
+        UUID secondAccountId = UUID.randomUUID();
+        journal.append(deposit(firstAccountId, 100, 100));
+        journal.append(deposit(secondAccountId, 40, 40));
+        assertEquals(2, checkpointer.checkpoint());
+        journal.append(deposit(firstAccountId, 20, 120));
+        assertEquals(3, checkpointer.checkpoint());
+        Transaction newest = deposit(secondAccountId, 5, 45);
+        journal.append(newest);
+
+        // When
+        var transactionRepository = new PartitionedTransactionRepository(new ConcurrentHashMap<>());
+        var balanceRepository = new MapBalanceRepository(new ConcurrentHashMap<>());
+        JournalRecovery.Result result =
+            JournalRecovery.recover(journal, snapshotStore, transactionRepository, balanceRepository);
+
+        // Then
+        assertEquals(3, result.snapshotSequence());
+        assertEquals(1, result.replayed());
+        assertEquals(newest.createdAt(), result.lastCreatedAt());
+        assertEquals(120, balanceRepository.getBalance(firstAccountId).orElseThrow().amount());
+        assertEquals(45, balanceRepository.getBalance(secondAccountId).orElseThrow().amount());
+    }
+
+    @Test
+    void checkpoint_RecordsLastAppliedSequencePerAccount_AndKeepsRetainedCount() throws IOException {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        for (int i = 1; i <= 3; i++) {
+            journal.append(deposit(accountId, 1, i));
+            checkpointer.checkpoint();
+        }
+
+        // When
+        BalanceSnapshotStore.Snapshot snapshot = snapshotStore.loadLatest().orElseThrow();
+
+        // Then
+        assertEquals(3, snapshot.sequence());
+        assertEquals(2, snapshot.balances().get(accountId).sequence());
+        assertEquals(3, snapshot.balances().get(accountId).balance().amount());
+        assertEquals(2, snapshotFiles().size());
+    }
+
+    @Test
+    void loadLatest_WhenNewestSnapshotIsCorrupt_FallsBackToThePreviousOne() throws IOException {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        journal.append(deposit(accountId, 10, 10));
+        checkpointer.checkpoint();
+        journal.append(deposit(accountId, 10, 20));
+        checkpointer.checkpoint();
+        Path newest = snapshotFiles().get(1);
+        byte[] content = Files.readAllBytes(newest);
+        content[content.length - 10] ^= 0x7f;
+        Files.write(newest, content);
+
+        // When
+        BalanceSnapshotStore.Snapshot snapshot = snapshotStore.loadLatest().orElseThrow();
+
+        // Then
+        assertEquals(1, snapshot.sequence());
+        assertEquals(10, snapshot.balances().get(accountId).balance().amount());
+    }
+
+    @Test
+    void backfillHistory_AfterSnapshotRecovery_CompletesTheAccountHistory() throws IOException {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        Transaction first = deposit(accountId, 100, 100);
+        Transaction second = deposit(accountId, 20, 120);
+        Transaction third = deposit(accountId, 30, 150);
+        journal.append(first);
+        journal.append(second);
+        checkpointer.checkpoint();
+        journal.append(third);
+
+        // When
+        TransactionRepository recent = new PartitionedTransactionRepository(new ConcurrentHashMap<>());
+        TransactionRepository archive = new PartitionedTransactionRepository(new ConcurrentHashMap<>());
+        JournalRecovery.Result result =
+            JournalRecovery.recover(
+                journal, snapshotStore, recent, new MapBalanceRepository(new ConcurrentHashMap<>()));
+        var repository = new JournaledTransactionRepository(
+            journal, recent, archive, JournalRecovery.backfillHistory(journal, result.snapshotSequence(), archive));
+
+        // Then
+        assertEquals(List.of(third), recent.getTransactions(accountId));
+        assertEquals(List.of(first, second, third), repository.getTransactions(accountId));
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve("snapshots"))) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static Transaction deposit(UUID accountId, Integer amount, Integer balance) {
+        return new Transaction(
+            UUID.randomUUID(),
+            accountId,
+            amount,
+            Transaction.TransactionType.DEPOSIT,
+            balance,
+            System.currentTimeMillis() * 1_000
+        );
+    }
+}
@@ -0,0 +1,321 @@
+package com.example.ledger.journal;
+
+import com.example.ledger.models.Balance;
+import com.example.ledger.models.Transaction;
+import com.example.ledger.models.TransactionPage;
+import com.example.ledger.repository.JournaledTransactionRepository;
+import com.example.ledger.repository.MapBalanceRepository;
+import com.example.ledger.repository.PartitionedTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replay_AfterReopen_ReturnsEveryRecordInOrderWithSequenceNumbers() throws IOException {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        List<Transaction> written = new ArrayList<>();
+        try (TransactionJournal journal = open(FsyncPolicy.PER_WRITE)) {
+            for (int i = 1; i <= 3; i++) {
+                Transaction transaction = deposit(accountId, 100, 100 * i);
+                written.add(transaction);
+                assertEquals(i - 1, journal.append(transaction));
+            }
+        }
+
+        // When
+        List<Transaction> replayed = new ArrayList<>();
+        List<Long> sequences = new ArrayList<>();
+        try (TransactionJournal journal = open(FsyncPolicy.PER_WRITE)) {
+            journal.replay(0, (transaction, sequence) -> {
+                replayed.add(transaction);
+                sequences.add(sequence);
+            });
+
+            // Then
+            assertEquals(3, journal.nextSequence());
+        }
+        assertEquals(written, replayed);
+        assertEquals(List.of(0L, 1L, 2L), sequences);
+    }
+
+    @Test
+    void replay_TransferLegs_KeepTheirTransferId() throws IOException {
+        // Given
+        UUID transferId = UUID.randomUUID();
+        long createdAt = System.currentTimeMillis() * 1_000;
+        List<Transaction> written = List.of(
+            new Transaction(UUID.randomUUID(), UUID.randomUUID(), 40, Transaction.TransactionType.WITHDRAWAL, 60, createdAt, transferId),
+            new Transaction(UUID.randomUUID(), UUID.randomUUID(), 40, Transaction.TransactionType.DEPOSIT, 40, createdAt, transferId)
+        );
+        try (TransactionJournal journal = open(FsyncPolicy.PER_BATCH)) {
+            journal.appendAll(written);
+        }
+
+        // When
+        List<Transaction> replayed = new ArrayList<>();
+        try (TransactionJournal journal = open(FsyncPolicy.PER_BATCH)) {
+            journal.replay(0, (transaction, sequence) -> replayed.add(transaction));
+        }
+
+        // Then
+        assertEquals(written, replayed);
+    }
+
+    @Test
+    void decode_AmountsBeyond32Bits_RoundTrip() {
+        // Given
+        Transaction transaction = deposit(UUID.randomUUID(), 3_000_000_000L, Long.MAX_VALUE);
+        ByteBuffer buffer = ByteBuffer.allocate(TransactionCodec.ENCODED_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        // When
+        TransactionCodec.encode(transaction, buffer);
+
+        // Then
+        assertEquals(transaction, TransactionCodec.decode(buffer.flip()));
+    }
+
+    @Test
+    void decode_RecordWrittenWithIntAmounts_ReadsAmountAndBalance() {
+        // Given - the record layout of journals written before amounts were 64-bit
+        UUID id = UUID.randomUUID();
+        UUID accountId = UUID.randomUUID();
+        ByteBuffer buffer = ByteBuffer.allocate(TransactionCodec.ENCODED_SIZE - 8).order(ByteOrder.LITTLE_ENDIAN)
+            .putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits())
+            .putLong(accountId.getMostSignificantBits()).putLong(accountId.getLeastSignificantBits())
+            .put((byte) Transaction.TransactionType.DEPOSIT.ordinal())
+            .putInt(150)
+            .putInt(2_000_000_000)
+            .putLong(1_714_551_330).putInt(123_456_000).putInt(0)
+            .putLong(0).putLong(0);
+
+        // When
+        Transaction transaction = TransactionCodec.decode(buffer.flip());
+
+        // Then
+        assertEquals(new Transaction(
+            id, accountId, 150, Transaction.TransactionType.DEPOSIT, 2_000_000_000, 1_714_551_330_123_456L), transaction);
+    }
+
+    @Test
+    void decode_RecordWrittenBeforeTransfers_ReadsItWithoutTransferId() {
+        // Given - the record layout of journals written before transactions carried a transfer id
+        UUID id = UUID.randomUUID();
+        UUID accountId = UUID.randomUUID();
+        ByteBuffer buffer = ByteBuffer.allocate(TransactionCodec.ENCODED_SIZE - 24).order(ByteOrder.LITTLE_ENDIAN)
+            .putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits())
+            .putLong(accountId.getMostSignificantBits()).putLong(accountId.getLeastSignificantBits())
+            .put((byte) Transaction.TransactionType.WITHDRAWAL.ordinal())
+            .putInt(40)
+            .putInt(60)
+            .putLong(1_714_551_330).putInt(123_456_000).putInt(0);
+
+        // When
+        Transaction transaction = TransactionCodec.decode(buffer.flip());
+
+        // Then
+        assertEquals(new Transaction(
+            id, accountId, 40, Transaction.TransactionType.WITHDRAWAL, 60, 1_714_551_330_123_456L), transaction);
+        assertNull(transaction.transferId());
+    }
+
+    @Test
+    void appendAll_AcrossSegments_RollsOverAndReplaysFromSequence() throws IOException {
+        // Given - enough records to fill several segments
+        UUID accountId = UUID.randomUUID();
+        List<Transaction> written = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            written.add(deposit(accountId, 1, i));
+        }
+        try (TransactionJournal journal = open(FsyncPolicy.PER_BATCH)) {
+            assertEquals(199, journal.appendAll(written));
+        }
+
+        // When
+        List<Transaction> replayed = new ArrayList<>();
+        try (TransactionJournal journal = open(FsyncPolicy.PER_BATCH)) {
+            journal.replay(150, (transaction, sequence) -> replayed.add(transaction));
+        }
+
+        // Then
+        assertTrue(segmentFiles().size() > 1);
+        assertEquals(written.subList(150, 200), replayed);
+    }
+
+    @Test
+    void open_WithTornTail_DropsTheIncompleteRecordAndKeepsAppending() throws IOException {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        Transaction first = deposit(accountId, 100, 100);
+        Transaction second = deposit(accountId, 50, 150);
+        try (TransactionJournal journal = open(FsyncPolicy.INTERVAL)) {
+            journal.append(first);
+            journal.append(second);
+        }
+        // corrupt the payload of the second record, as if the crash happened mid-write
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3}), JournalSegment.RECORD_SIZE + 20);
+        }
+
+        // When
+        Transaction third = deposit(accountId, 25, 125);
+        List<Transaction> replayed = new ArrayList<>();
+        try (TransactionJournal journal = open(FsyncPolicy.INTERVAL)) {
+            assertEquals(1, journal.nextSequence());
+            journal.append(third);
+        }
+        try (TransactionJournal journal = open(FsyncPolicy.INTERVAL)) {
+            journal.replay(0, (transaction, sequence) -> replayed.add(transaction));
+        }
+
+        // Then
+        assertEquals(List.of(first, third), replayed);
+    }
+
+    @Test
+    void open_WithLostPageBeforeIntactRecords_DropsEverythingAfterTheGap() throws IOException {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        Transaction first = deposit(accountId, 100, 100);
+        try (TransactionJournal journal = open(FsyncPolicy.INTERVAL)) {
+            journal.append(first);
+            journal.append(deposit(accountId, 50, 150));
+            journal.append(deposit(accountId, 25, 175));
+        }
+        // zero the second record, as if its page never reached the disk while the next one did
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(JournalSegment.RECORD_SIZE), JournalSegment.RECORD_SIZE);
+        }
+
+        // When - appending over the gap, then recovering again
+        Transaction replacement = deposit(accountId, 10, 110);
+        List<Transaction> replayed = new ArrayList<>();
+        try (TransactionJournal journal = open(FsyncPolicy.INTERVAL)) {
+            assertEquals(1, journal.nextSequence());
+            journal.append(replacement);
+        }
+        try (TransactionJournal journal = open(FsyncPolicy.INTERVAL)) {
+            journal.replay(0, (transaction, sequence) -> replayed.add(transaction));
+        }
+
+        // Then - the third record, stale but intact, is not replayed after the replacement
+        assertEquals(List.of(first, replacement), replayed);
+    }
+
+    @Test
+    void recover_RebuildsTransactionsAndBalancesFromTheJournal() throws IOException {
+        // Given - a ledger written through the journaled repository
+        UUID firstAccountId = UUID.randomUUID();
+        UUID secondAccountId = UUID.randomUUID();
+        Transaction lastOfFirst = deposit(firstAccountId, 30, 130);
+        try (TransactionJournal journal = open(FsyncPolicy.PER_BATCH)) {
+            var repository = new JournaledTransactionRepository(
+                journal, new PartitionedTransactionRepository(new ConcurrentHashMap<>()));
+            repository.addTransaction(deposit(firstAccountId, 100, 100));
+            repository.addTransactions(List.of(deposit(secondAccountId, 70, 70), lastOfFirst));
+        }
+
+        // When - restarting with empty in-memory repositories
+        var transactionRepository = new PartitionedTransactionRepository(new ConcurrentHashMap<>());
+        var balanceRepository = new MapBalanceRepository(new ConcurrentHashMap<>());
+        long replayed;
+        try (TransactionJournal journal = open(FsyncPolicy.PER_BATCH)) {
+            replayed = JournalRecovery.recover(journal, transactionRepository, balanceRepository);
+        }
+
+        // Then
+        assertEquals(3, replayed);
+        assertEquals(2, transactionRepository.getTransactions(firstAccountId).size());
+        assertEquals(1, transactionRepository.getTransactions(secondAccountId).size());
+        assertEquals(new Balance(130, lastOfFirst.createdAt()), balanceRepository.getBalance(firstAccountId).orElseThrow());
+        assertEquals(70, balanceRepository.getBalance(secondAccountId).orElseThrow().amount());
+    }
+
+    @Test
+    void journaledRepository_WithArchive_PagesAndAnswersAsOfAcrossArchiveAndLiveStore() throws IOException {
+        // Given - two archived transactions, then two recent ones
+        UUID accountId = UUID.randomUUID();
+        List<Transaction> history = List.of(
+            deposit(accountId, 10, 10, 1_000),
+            deposit(accountId, 20, 30, 2_000),
+            deposit(accountId, 30, 60, 3_000),
+            deposit(accountId, 40, 100, 4_000));
+        var archive = new PartitionedTransactionRepository(new ConcurrentHashMap<>());
+        archive.addTransactions(history.subList(0, 2));
+        try (TransactionJournal journal = open(FsyncPolicy.PER_BATCH)) {
+            var repository = new JournaledTransactionRepository(
+                journal,
+                new PartitionedTransactionRepository(new ConcurrentHashMap<>()),
+                archive,
+                CompletableFuture.completedFuture(null));
+            repository.addTransactions(history.subList(2, 4));
+
+            // When
+            TransactionPage first = repository.getTransactions(accountId, 0, 2, null, null);
+            TransactionPage second = repository.getTransactions(accountId, first.nextPosition(), 2, null, null);
+            TransactionPage spanning = repository.getTransactions(accountId, 1, 2, null, null);
+            TransactionPage bounded = repository.getTransactions(accountId, 0, 10, 2_000L, 4_000L);
+
+            // Then
+            assertEquals(new TransactionPage(history.subList(0, 2), 2), first);
+            assertEquals(new TransactionPage(history.subList(2, 4), null), second);
+            assertEquals(new TransactionPage(history.subList(1, 3), 3), spanning);
+            assertEquals(new TransactionPage(history.subList(1, 3), null), bounded);
+            assertEquals(4, repository.countTransactions(accountId));
+            assertEquals(Optional.of(history.get(1)), repository.getTransactionAsOf(accountId, 2_500));
+            assertEquals(Optional.of(history.get(3)), repository.getTransactionAsOf(accountId, 9_000));
+            assertEquals(Optional.empty(), repository.getTransactionAsOf(accountId, 999));
+        }
+    }
+
+    private TransactionJournal open(FsyncPolicy fsyncPolicy) throws IOException {
+        return TransactionJournal.open(directory, SEGMENT_SIZE, fsyncPolicy, Duration.ofMillis(5));
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static Transaction deposit(UUID accountId, long amount, long balance) {
+        return deposit(accountId, amount, balance, System.currentTimeMillis() * 1_000);
+    }
+
+    private static Transaction deposit(UUID accountId, long amount, long balance, long createdAt) {
+        return new Transaction(
+            UUID.randomUUID(),
+            accountId,
+            amount,
+            Transaction.TransactionType.DEPOSIT,
+            balance,
+            createdAt
+        );
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTransactionRepositoryTest {
+
+    private ColumnarTransactionRepository transactionRepository;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = new ColumnarTransactionRepository(new ConcurrentHashMap<>());
+    }
+
+    @Test
+    void getTransactions_WhenAccountUnknown_ReturnsEmptyList() {
+        assertTrue(transactionRepository.getTransactions(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void getTransactions_ReturnsEqualRecords() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        Transaction deposit = new Transaction(
+            UUID.randomUUID(),
+            accountId,
+            150,
+            Transaction.TransactionType.DEPOSIT,
+            150,
+            1_714_551_330_123_456L
+        );
+        Transaction withdrawal = new Transaction(
+            UUID.randomUUID(),
+            accountId,
+            50,
+            Transaction.TransactionType.WITHDRAWAL,
+            100,
+            1_714_551_360_000_000L
+        );
+
+        // When
+        transactionRepository.addTransactions(List.of(deposit, withdrawal));
+
+        // Then
+        List<Transaction> transactions = transactionRepository.getTransactions(accountId);
+        assertEquals(List.of(deposit, withdrawal), transactions);
+    }
+
+    @Test
+    void getTransactions_AcrossChunks_ReturnsOnlyAccountTransactionsInInsertionOrder() {
+        // Given - more rows than a single chunk holds, interleaved between two accounts
+        UUID accountId = UUID.randomUUID();
+        UUID otherAccountId = UUID.randomUUID();
+        List<Transaction> expected = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            Transaction transaction = deposit(accountId, 1, i + 1);
+            expected.add(transaction);
+            transactionRepository.addTransaction(transaction);
+            transactionRepository.addTransaction(deposit(otherAccountId, 2, 2 * (i + 1)));
+        }
+
+        // Then
+        assertEquals(expected, transactionRepository.getTransactions(accountId));
+        assertEquals(10_000, transactionRepository.getTransactions(otherAccountId).size());
+        assertEquals(10_000, transactionRepository.countTransactions(accountId));
+        assertEquals(20_000, transactionRepository.size());
+    }
+
+    @Test
+    void getTransactions_ReturnsSnapshotUnaffectedByLaterAppends() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        transactionRepository.addTransaction(deposit(accountId, 100, 100));
+        List<Transaction> snapshot = transactionRepository.getTransactions(accountId);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            transactionRepository.addTransaction(deposit(accountId, 1, 101 + i));
+        }
+
+        // Then
+        assertEquals(1, snapshot.size());
+        assertEquals(101, transactionRepository.getTransactions(accountId).size());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(deposit(accountId, 1, 1)));
+    }
+
+    @Test
+    void addTransaction_FromConcurrentWriters_KeepsEveryTransaction() throws Exception {
+        // Given
+        int writers = 8;
+        int transactionsPerWriter = 10_000;
+        UUID sharedAccountId = UUID.randomUUID();
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        for (int writer = 0; writer < writers; writer++) {
+            UUID ownAccountId = UUID.randomUUID();
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < transactionsPerWriter; i++) {
+                    transactionRepository.addTransaction(deposit(sharedAccountId, 1, i));
+                    transactionRepository.addTransaction(deposit(ownAccountId, 1, i));
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        List<Transaction> shared = transactionRepository.getTransactions(sharedAccountId);
+        assertEquals(writers * transactionsPerWriter, shared.size());
+        assertTrue(shared.stream().allMatch(transaction -> transaction.accountId().equals(sharedAccountId)));
+    }
+
+    private static Transaction deposit(UUID accountId, Integer amount, Integer balance) {
+        return new Transaction(
+            UUID.randomUUID(),
+            accountId,
+            amount,
+            Transaction.TransactionType.DEPOSIT,
+            balance,
+            System.currentTimeMillis() * 1_000
+        );
+    }
+}
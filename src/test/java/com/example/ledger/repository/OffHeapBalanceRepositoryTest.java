@@ -0,0 +1,149 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Balance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapBalanceRepositoryTest {
+
+    private OffHeapBalanceRepository balanceRepository;
+
+    @BeforeEach
+    void setUp() {
+        balanceRepository = new OffHeapBalanceRepository(1_000);
+    }
+
+    @Test
+    void getBalance_WhenAccountUnknown_ReturnsEmpty() {
+        assertTrue(balanceRepository.getBalance(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void saveBalance_ThenGetBalance_ReturnsSavedBalance() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        long updatedAt = 1_714_551_330_123_456L;
+
+        // When
+        balanceRepository.saveBalance(accountId, new Balance(150, updatedAt));
+
+        // Then
+        assertEquals(new Balance(150, updatedAt), balanceRepository.getBalance(accountId).orElseThrow());
+    }
+
+    @Test
+    void getAmount_ReturnsSavedAmountOrZeroWhenAccountUnknown() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        balanceRepository.saveBalance(accountId, new Balance(150, System.currentTimeMillis() * 1_000));
+
+        // When & Then
+        assertEquals(150, balanceRepository.getAmount(accountId));
+        assertEquals(0, balanceRepository.getAmount(UUID.randomUUID()));
+        assertEquals(1, balanceRepository.size());
+    }
+
+    @Test
+    void saveBalance_WhenAccountExists_OverwritesBalance() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        balanceRepository.saveBalance(accountId, new Balance(100, System.currentTimeMillis() * 1_000));
+
+        // When
+        balanceRepository.saveBalance(accountId, new Balance(40, System.currentTimeMillis() * 1_000));
+
+        // Then
+        assertEquals(40, balanceRepository.getBalance(accountId).orElseThrow().amount());
+        assertEquals(1, balanceRepository.size());
+    }
+
+    @Test
+    void saveBalance_WithCollidingAccounts_KeepsEachBalance() {
+        // Given - enough accounts to fill the table up to its load factor
+        List<UUID> accountIds = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            accountIds.add(UUID.randomUUID());
+        }
+
+        // When
+        for (int i = 0; i < accountIds.size(); i++) {
+            balanceRepository.saveBalance(accountIds.get(i), new Balance(i, System.currentTimeMillis() * 1_000));
+        }
+
+        // Then
+        assertEquals(1_000, balanceRepository.size());
+        for (int i = 0; i < accountIds.size(); i++) {
+            assertEquals(i, balanceRepository.getBalance(accountIds.get(i)).orElseThrow().amount());
+        }
+    }
+
+    @Test
+    void saveBalance_WhenTableIsFull_ThrowsIllegalStateException() {
+        // Given
+        OffHeapBalanceRepository small = new OffHeapBalanceRepository(1);
+        for (int i = 0; i < 11; i++) {
+            small.saveBalance(UUID.randomUUID(), new Balance(i, System.currentTimeMillis() * 1_000));
+        }
+
+        // When / Then
+        assertThrows(IllegalStateException.class,
+            () -> small.saveBalance(UUID.randomUUID(), new Balance(0, System.currentTimeMillis() * 1_000)));
+    }
+
+    @Test
+    void getBalance_WhileConcurrentlyUpdated_NeverReturnsTornBalance() throws InterruptedException {
+        // Given - the amount and the timestamp always move together
+        UUID accountId = UUID.randomUUID();
+        long epoch = 1_704_067_200_000_000L;
+        balanceRepository.saveBalance(accountId, new Balance(0, epoch));
+        int writers = 4;
+        int updatesPerWriter = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(writers);
+        List<String> torn = new ArrayList<>();
+
+        // When
+        for (int w = 0; w < writers; w++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 1; i <= updatesPerWriter; i++) {
+                        balanceRepository.saveBalance(accountId, new Balance(i, epoch + i));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        executor.submit(() -> {
+            while (done.getCount() > 0) {
+                Balance balance = balanceRepository.getBalance(accountId).orElseThrow();
+                if (balance.updatedAt() != epoch + balance.amount()) {
+                    synchronized (torn) {
+                        torn.add(balance.toString());
+                    }
+                }
+            }
+        });
+        start.countDown();
+        executor.shutdown();
+
+        // Then
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(List.of(), torn);
+        assertEquals(1, balanceRepository.size());
+    }
+}
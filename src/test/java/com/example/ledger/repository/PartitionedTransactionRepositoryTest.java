@@ -0,0 +1,196 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Transaction;
+import com.example.ledger.models.TransactionPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedTransactionRepositoryTest {
+
+    private PartitionedTransactionRepository transactionRepository;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = new PartitionedTransactionRepository(new ConcurrentHashMap<>());
+    }
+
+    @Test
+    void getTransactions_WhenAccountUnknown_ReturnsEmptyList() {
+        assertTrue(transactionRepository.getTransactions(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void getTransactions_ReturnsOnlyAccountTransactionsInInsertionOrder() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        UUID otherAccountId = UUID.randomUUID();
+        Transaction first = deposit(accountId, 100, 100);
+        Transaction other = deposit(otherAccountId, 50, 50);
+        Transaction second = deposit(accountId, 200, 300);
+
+        // When
+        transactionRepository.addTransaction(first);
+        transactionRepository.addTransaction(other);
+        transactionRepository.addTransaction(second);
+
+        // Then
+        assertEquals(List.of(first, second), transactionRepository.getTransactions(accountId));
+        assertEquals(List.of(other), transactionRepository.getTransactions(otherAccountId));
+    }
+
+    @Test
+    void size_CountsTransactionsPerAccountAndInTotal() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        UUID otherAccountId = UUID.randomUUID();
+
+        // When
+        transactionRepository.addTransaction(deposit(accountId, 100, 100));
+        transactionRepository.addTransaction(deposit(otherAccountId, 50, 50));
+        transactionRepository.addTransaction(deposit(accountId, 200, 300));
+
+        // Then
+        assertEquals(2, transactionRepository.countTransactions(accountId));
+        assertEquals(0, transactionRepository.countTransactions(UUID.randomUUID()));
+        assertEquals(3, transactionRepository.size());
+    }
+
+    @Test
+    void getTransactions_ReturnsSnapshotUnaffectedByLaterAppends() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        transactionRepository.addTransaction(deposit(accountId, 100, 100));
+        List<Transaction> snapshot = transactionRepository.getTransactions(accountId);
+
+        // When - enough appends to grow the segment several times
+        for (int i = 0; i < 100; i++) {
+            transactionRepository.addTransaction(deposit(accountId, 1, 101 + i));
+        }
+
+        // Then
+        assertEquals(1, snapshot.size());
+        assertEquals(101, transactionRepository.getTransactions(accountId).size());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(deposit(accountId, 1, 1)));
+    }
+
+    @Test
+    void getTransactionsPage_ReturnsLimitedPageAndNextPosition() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        for (int i = 1; i <= 5; i++) {
+            transactionRepository.addTransaction(deposit(accountId, i, i));
+        }
+
+        // When
+        TransactionPage first = transactionRepository.getTransactions(accountId, 0, 2, null, null);
+        TransactionPage last = transactionRepository.getTransactions(accountId, 4, 2, null, null);
+
+        // Then
+        assertEquals(List.of(1L, 2L), first.transactions().stream().map(Transaction::amount).toList());
+        assertEquals(2, first.nextPosition());
+        assertEquals(List.of(5L), last.transactions().stream().map(Transaction::amount).toList());
+        assertNull(last.nextPosition());
+    }
+
+    @Test
+    void getTransactionsPage_WithTimeRange_SeeksToFirstTransactionInRange() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        OffsetDateTime start = OffsetDateTime.parse("2025-09-01T00:00:00Z");
+        for (int day = 0; day < 10; day++) {
+            transactionRepository.addTransaction(new Transaction(
+                UUID.randomUUID(), accountId, day, Transaction.TransactionType.DEPOSIT, day, micros(start.plusDays(day))));
+        }
+
+        // When - [day 3, day 7) in pages of 3
+        TransactionPage first =
+            transactionRepository.getTransactions(accountId, 0, 3, micros(start.plusDays(3)), micros(start.plusDays(7)));
+        TransactionPage second = transactionRepository.getTransactions(
+            accountId, first.nextPosition(), 3, micros(start.plusDays(3)), micros(start.plusDays(7)));
+
+        // Then
+        assertEquals(List.of(3L, 4L, 5L), first.transactions().stream().map(Transaction::amount).toList());
+        assertEquals(6, first.nextPosition());
+        assertEquals(List.of(6L), second.transactions().stream().map(Transaction::amount).toList());
+        assertNull(second.nextPosition());
+    }
+
+    @Test
+    void getTransactionAsOf_ReturnsLastTransactionCreatedAtOrBeforeInstant() {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        OffsetDateTime start = OffsetDateTime.parse("2025-09-01T00:00:00Z");
+        for (int day = 0; day < 10; day++) {
+            transactionRepository.addTransaction(new Transaction(
+                UUID.randomUUID(), accountId, day, Transaction.TransactionType.DEPOSIT, day * 10, micros(start.plusDays(day))));
+        }
+
+        // When & Then
+        assertEquals(30, transactionRepository.getTransactionAsOf(accountId, micros(start.plusDays(3))).orElseThrow().balance());
+        assertEquals(30, transactionRepository.getTransactionAsOf(accountId, micros(start.plusDays(4).minusNanos(1_000))).orElseThrow().balance());
+        assertEquals(90, transactionRepository.getTransactionAsOf(accountId, micros(start.plusYears(1))).orElseThrow().balance());
+        assertTrue(transactionRepository.getTransactionAsOf(accountId, micros(start.minusNanos(1_000))).isEmpty());
+        assertTrue(transactionRepository.getTransactionAsOf(UUID.randomUUID(), micros(start)).isEmpty());
+    }
+
+    @Test
+    void addTransaction_FromConcurrentWriters_KeepsEveryTransaction() throws Exception {
+        // Given
+        int writers = 8;
+        int transactionsPerWriter = 10_000;
+        UUID sharedAccountId = UUID.randomUUID();
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        for (int writer = 0; writer < writers; writer++) {
+            UUID ownAccountId = UUID.randomUUID();
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < transactionsPerWriter; i++) {
+                    transactionRepository.addTransaction(deposit(sharedAccountId, 1, i));
+                    transactionRepository.addTransaction(deposit(ownAccountId, 1, i));
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        List<Transaction> shared = transactionRepository.getTransactions(sharedAccountId);
+        assertEquals(writers * transactionsPerWriter, shared.size());
+        assertTrue(shared.stream().allMatch(transaction -> transaction.accountId().equals(sharedAccountId)));
+    }
+
+    private static Transaction deposit(UUID accountId, Integer amount, Integer balance) {
+        return new Transaction(
+            UUID.randomUUID(),
+            accountId,
+            amount,
+            Transaction.TransactionType.DEPOSIT,
+            balance,
+            System.currentTimeMillis() * 1_000
+        );
+    }
+
+    private static long micros(OffsetDateTime time) {
+        return time.toEpochSecond() * 1_000_000 + time.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.ledger.repository;
+
+import com.example.ledger.models.Transaction;
+import com.example.ledger.models.TransactionPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredTransactionRepositoryTest {
+
+    private static final OffsetDateTime START = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    private TieredTransactionRepository transactionRepository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // no background compaction: the tests compact as of chosen instants
+        transactionRepository =
+            new TieredTransactionRepository(directory, Duration.ofDays(1), Duration.ofHours(1), Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.close();
+    }
+
+    @Test
+    void compact_MovesWholeBucketsOlderThanRetentionToDisk() throws IOException {
+        // Given - one posting a minute for three hours
+        UUID accountId = UUID.randomUUID();
+        List<Transaction> history = postEveryMinute(accountId, 180);
+
+        // When - the retention horizon falls in the middle of the third hour
+        long moved = transactionRepository.compact(START.plusDays(1).plusMinutes(150).toInstant());
+
+        // Then - the first two hours are on disk, one segment file per hour
+        assertEquals(120, moved);
+        assertEquals(60, transactionRepository.hotSize());
+        assertEquals(180, transactionRepository.size());
+        assertEquals(180, transactionRepository.countTransactions(accountId));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+        assertEquals(history, transactionRepository.getTransactions(accountId));
+    }
+
+    @Test
+    void getTransactions_AfterSeveralCompactions_ReadsAcrossTiersInOrder() throws IOException {
+        // Given - two accounts, with transfers, compacted twice as time passes
+        UUID accountId = UUID.randomUUID();
+        UUID otherAccountId = UUID.randomUUID();
+        List<Transaction> expected = new ArrayList<>();
+        List<Transaction> otherExpected = new ArrayList<>();
+        int balance = 0;
+        for (int minute = 0; minute < 300; minute++) {
+            balance += minute;
+            UUID transferId = minute % 7 == 0 ? UUID.randomUUID() : null;
+            Transaction transaction = new Transaction(
+                UUID.randomUUID(), accountId, minute, Transaction.TransactionType.DEPOSIT, balance,
+                micros(START.plusMinutes(minute)), transferId);
+            expected.add(transaction);
+            transactionRepository.addTransaction(transaction);
+            if (minute % 3 == 0) {
+                Transaction other = deposit(otherAccountId, 1, otherExpected.size() + 1, micros(START.plusMinutes(minute)));
+                otherExpected.add(other);
+                transactionRepository.addTransaction(other);
+            }
+            if (minute == 150) {
+                transactionRepository.compact(START.plusDays(1).plusMinutes(90).toInstant());
+            }
+        }
+
+        // When
+        transactionRepository.compact(START.plusDays(1).plusMinutes(250).toInstant());
+
+        // Then
+        // only the fifth hour stays on the heap: 60 postings and 20 on the other account
+        assertEquals(80, transactionRepository.hotSize());
+        assertEquals(expected, transactionRepository.getTransactions(accountId));
+        assertEquals(otherExpected, transactionRepository.getTransactions(otherAccountId));
+    }
+
+    @Test
+    void getTransactionsPage_WithTimeRange_SeeksAcrossTiers() throws IOException {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        List<Transaction> history = postEveryMinute(accountId, 180);
+        transactionRepository.compact(START.plusDays(1).plusMinutes(150).toInstant());
+
+        // When - a range straddling the cold and hot tiers
+        TransactionPage page = transactionRepository.getTransactions(
+            accountId, 0, 30, micros(START.plusMinutes(110)), micros(START.plusMinutes(170)));
+
+        // Then
+        assertEquals(history.subList(110, 140), page.transactions());
+        assertEquals(140, page.nextPosition());
+    }
+
+    @Test
+    void getTransactionAsOf_AfterCompaction_FindsTransactionInEitherTier() throws IOException {
+        // Given - two hours on disk, in blocks of several rows, and one on the heap
+        UUID accountId = UUID.randomUUID();
+        postEveryMinute(accountId, 180);
+        transactionRepository.compact(START.plusDays(1).plusMinutes(150).toInstant());
+
+        // When & Then - the balance after the posting at minute m is m + 1
+        assertEquals(1, transactionRepository.getTransactionAsOf(accountId, micros(START.plusSeconds(59))).orElseThrow().balance());
+        assertEquals(100, transactionRepository.getTransactionAsOf(accountId, micros(START.plusMinutes(99))).orElseThrow().balance());
+        assertEquals(120, transactionRepository.getTransactionAsOf(accountId, micros(START.plusMinutes(120).minusNanos(1_000))).orElseThrow().balance());
+        assertEquals(121, transactionRepository.getTransactionAsOf(accountId, micros(START.plusMinutes(120))).orElseThrow().balance());
+        assertEquals(180, transactionRepository.getTransactionAsOf(accountId, micros(START.plusDays(1))).orElseThrow().balance());
+        assertTrue(transactionRepository.getTransactionAsOf(accountId, micros(START.minusNanos(1_000))).isEmpty());
+    }
+
+    @Test
+    void addTransaction_AfterCompaction_AppendsToHotTier() throws IOException {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        List<Transaction> history = new ArrayList<>(postEveryMinute(accountId, 120));
+        transactionRepository.compact(START.plusDays(2).toInstant());
+
+        // When
+        Transaction later = deposit(accountId, 5, 125, micros(START.plusDays(2)));
+        transactionRepository.addTransaction(later);
+        history.add(later);
+
+        // Then
+        assertEquals(1, transactionRepository.hotSize());
+        assertEquals(history, transactionRepository.getTransactions(accountId));
+    }
+
+    @Test
+    void constructor_DeletesSegmentsLeftByEarlierRun() throws IOException {
+        // Given
+        postEveryMinute(UUID.randomUUID(), 120);
+        transactionRepository.compact(START.plusDays(2).toInstant());
+
+        // When
+        new TieredTransactionRepository(directory, Duration.ofDays(1), Duration.ofHours(1), Duration.ZERO);
+
+        // Then
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private List<Transaction> postEveryMinute(UUID accountId, int minutes) {
+        List<Transaction> history = new ArrayList<>();
+        for (int minute = 0; minute < minutes; minute++) {
+            Transaction transaction = deposit(accountId, 1, minute + 1, micros(START.plusMinutes(minute)));
+            history.add(transaction);
+            transactionRepository.addTransaction(transaction);
+        }
+        return history;
+    }
+
+    private static Transaction deposit(UUID accountId, Integer amount, Integer balance, long createdAt) {
+        return new Transaction(
+            UUID.randomUUID(),
+            accountId,
+            amount,
+            Transaction.TransactionType.DEPOSIT,
+            balance,
+            createdAt
+        );
+    }
+
+    private static long micros(OffsetDateTime time) {
+        return time.toEpochSecond() * 1_000_000 + time.getNano() / 1_000;
+    }
+}
@@ -2,14 +2,13 @@ package com.example.ledger.service;
 
 import com.example.ledger.models.Balance;
 import com.example.ledger.repository.BalanceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.time.OffsetDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,17 +21,17 @@ class BalanceServiceTest {
     @Mock
     private BalanceRepository balanceRepository;
 
-    @InjectMocks
     private BalanceService balanceService;
 
     private UUID testAccountId;
     private Balance testBalance;
-    private OffsetDateTime testTime;
+    private long testTime;
 
     @BeforeEach
     void setUp() {
+        balanceService = new BalanceService(balanceRepository, new SimpleMeterRegistry());
         testAccountId = UUID.randomUUID();
-        testTime = OffsetDateTime.now();
+        testTime = System.currentTimeMillis() * 1_000;
         testBalance = new Balance(1000, testTime);
     }
 
@@ -51,10 +50,9 @@ class BalanceServiceTest {
     }
 
     @Test
-    void getBalance_WhenBalanceDoesNotExist_CreatesNewBalanceWithZeroAmount() {
+    void getBalance_WhenBalanceDoesNotExist_ReturnsZeroBalanceWithoutSavingIt() {
         // Given
         when(balanceRepository.getBalance(testAccountId)).thenReturn(Optional.empty());
-        when(balanceRepository.saveBalance(eq(testAccountId), any())).thenReturn(new Balance(0, OffsetDateTime.now()));
 
         // When
         Balance result = balanceService.getBalance(testAccountId);
@@ -64,7 +62,20 @@ class BalanceServiceTest {
         assertEquals(0, result.amount());
         assertNotNull(result.updatedAt());
         verify(balanceRepository).getBalance(testAccountId);
-        verify(balanceRepository).saveBalance(eq(testAccountId), any(Balance.class));
+        verify(balanceRepository, never()).saveBalance(eq(testAccountId), any(Balance.class));
+    }
+
+    @Test
+    void getBalanceAmount_ReadsAmountFromRepository() {
+        // Given
+        when(balanceRepository.getAmount(testAccountId)).thenReturn(1000L);
+
+        // When
+        long result = balanceService.getBalanceAmount(testAccountId);
+
+        // Then
+        assertEquals(1000, result);
+        verify(balanceRepository, never()).saveBalance(any(), any());
     }
 
     @Test
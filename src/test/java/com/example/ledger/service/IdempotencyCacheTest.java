@@ -0,0 +1,95 @@
+package com.example.ledger.service;
+
+import com.example.ledger.exceptions.IdempotencyKeyReusedException;
+import com.example.ledger.models.Posting;
+import com.example.ledger.models.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private IdempotencyCache idempotencyCache;
+    private UUID accountId;
+    private AtomicInteger submissions;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyCache = new IdempotencyCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        accountId = UUID.randomUUID();
+        submissions = new AtomicInteger();
+    }
+
+    private CompletableFuture<Transaction> post(Posting posting) {
+        submissions.incrementAndGet();
+        return CompletableFuture.completedFuture(new Transaction(
+            UUID.randomUUID(), posting.accountId(), posting.amount(), posting.type(), posting.amount(),
+            System.currentTimeMillis() * 1_000));
+    }
+
+    @Test
+    void submit_WithRepeatedKey_ReturnsOriginalTransactionWithoutPostingAgain() {
+        // Given
+        Posting deposit = Posting.deposit(accountId, 100);
+        Transaction original = idempotencyCache.submit("key-1", deposit, this::post).join();
+
+        // When
+        Transaction repeated = idempotencyCache.submit("key-1", deposit, this::post).join();
+
+        // Then
+        assertEquals(original, repeated);
+        assertEquals(1, submissions.get());
+    }
+
+    @Test
+    void submit_WithSameKeyForAnotherAccountOrType_PostsAgain() {
+        // Given
+        idempotencyCache.submit("key-1", Posting.deposit(accountId, 100), this::post).join();
+
+        // When
+        idempotencyCache.submit("key-1", Posting.withdrawal(accountId, 100), this::post).join();
+        idempotencyCache.submit("key-1", Posting.deposit(UUID.randomUUID(), 100), this::post).join();
+
+        // Then
+        assertEquals(3, submissions.get());
+    }
+
+    @Test
+    void submit_WhenPostingFails_DoesNotRememberTheKey() {
+        // Given
+        Posting withdrawal = Posting.withdrawal(accountId, 100);
+        CompletableFuture<Transaction> failed = idempotencyCache.submit(
+            "key-1", withdrawal, posting -> CompletableFuture.failedFuture(new IllegalStateException()));
+        assertThrows(CompletionException.class, failed::join);
+
+        // When
+        Transaction retried = idempotencyCache.submit("key-1", withdrawal, this::post).join();
+
+        // Then
+        assertEquals(100, retried.amount());
+        assertEquals(1, submissions.get());
+    }
+
+    @Test
+    void submit_WithRepeatedKeyForDifferentAmount_ThrowsIdempotencyKeyReusedException() {
+        // Given
+        idempotencyCache.submit("key-1", Posting.deposit(accountId, 100), this::post).join();
+
+        // When
+        CompletableFuture<Transaction> reused =
+            idempotencyCache.submit("key-1", Posting.deposit(accountId, 200), this::post);
+
+        // Then
+        CompletionException exception = assertThrows(CompletionException.class, reused::join);
+        assertInstanceOf(IdempotencyKeyReusedException.class, exception.getCause());
+        assertEquals(1, submissions.get());
+    }
+}
@@ -0,0 +1,341 @@
+package com.example.ledger.service;
+
+import com.example.ledger.exceptions.BalanceOverflowException;
+import com.example.ledger.exceptions.InsufficientFundsException;
+import com.example.ledger.models.Posting;
+import com.example.ledger.models.PostingOutcome;
+import com.example.ledger.models.Transaction;
+import com.example.ledger.models.Transfer;
+import com.example.ledger.repository.MapBalanceRepository;
+import com.example.ledger.repository.PartitionedTransactionRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedPostingEngineTest {
+
+    private BalanceService balanceService;
+    private TransactionService transactionService;
+    private SimpleMeterRegistry meterRegistry;
+    private ShardedPostingEngine postingEngine;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        balanceService = new BalanceService(new MapBalanceRepository(new ConcurrentHashMap<>()), meterRegistry);
+        var transactionRepository = new PartitionedTransactionRepository(new ConcurrentHashMap<>());
+        transactionService = new TransactionService(
+            transactionRepository,
+            balanceService,
+            new AccountLocks(16, meterRegistry),
+            new SystemLedgerClock(),
+            new TimeOrderedTransactionIdGenerator(),
+            new StatementAggregates(transactionRepository::getTransactions),
+            meterRegistry
+        );
+        postingEngine = new ShardedPostingEngine(transactionService, 4, 64, Duration.ofMillis(2), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        postingEngine.close();
+    }
+
+    @Test
+    void submit_Deposit_CompletesWithStoredTransaction() throws Exception {
+        // Given
+        UUID accountId = UUID.randomUUID();
+
+        // When
+        Transaction transaction = postingEngine.submit(Posting.deposit(accountId, 500)).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(accountId, transaction.accountId());
+        assertEquals(Transaction.TransactionType.DEPOSIT, transaction.type());
+        assertEquals(500, transaction.balance());
+        assertEquals(List.of(transaction), transactionService.getTransactions(accountId));
+    }
+
+    @Test
+    void submit_WithdrawalAboveBalance_CompletesExceptionally() throws Exception {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        postingEngine.submit(Posting.deposit(accountId, 100)).get(5, TimeUnit.SECONDS);
+
+        // When
+        CompletableFuture<Transaction> result = postingEngine.submit(Posting.withdrawal(accountId, 101));
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof InsufficientFundsException);
+        assertEquals(100, balanceService.getBalance(accountId).amount());
+    }
+
+    @Test
+    void submitAll_WithUnfundedWithdrawal_RejectsOnlyThatPosting() throws Exception {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        List<Posting> postings = List.of(
+            Posting.deposit(accountId, 100),
+            Posting.withdrawal(accountId, 101),
+            Posting.withdrawal(accountId, 40)
+        );
+
+        // When
+        List<PostingOutcome> outcomes = postingEngine.submitAll(postings).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(List.of(true, false, true), outcomes.stream().map(PostingOutcome::isPosted).toList());
+        assertTrue(outcomes.get(1).failure() instanceof InsufficientFundsException);
+        assertEquals(60, outcomes.get(2).transaction().balance());
+        assertEquals(60, balanceService.getBalance(accountId).amount());
+    }
+
+    @Test
+    void transfer_WithinAndAcrossShards_MovesMoneyAndLinksLegs() throws Exception {
+        // Given - the engine has 4 shards picked by account hash
+        UUID sourceAccountId = UUID.randomUUID();
+        UUID sameShardAccountId = accountOnShard(Math.floorMod(sourceAccountId.hashCode(), 4));
+        UUID otherShardAccountId = accountOnShard(Math.floorMod(sourceAccountId.hashCode() + 1, 4));
+        postingEngine.submit(Posting.deposit(sourceAccountId, 100)).get(5, TimeUnit.SECONDS);
+
+        // When
+        Transfer sameShard = postingEngine.transfer(sourceAccountId, sameShardAccountId, 30).get(5, TimeUnit.SECONDS);
+        Transfer otherShard = postingEngine.transfer(sourceAccountId, otherShardAccountId, 50).get(5, TimeUnit.SECONDS);
+        CompletableFuture<Transfer> unfunded = postingEngine.transfer(sourceAccountId, otherShardAccountId, 21);
+
+        // Then
+        for (Transfer transfer : List.of(sameShard, otherShard)) {
+            assertEquals(transfer.id(), transfer.debit().transferId());
+            assertEquals(transfer.id(), transfer.credit().transferId());
+        }
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> unfunded.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof InsufficientFundsException);
+        assertEquals(20, balanceService.getBalance(sourceAccountId).amount());
+        assertEquals(30, balanceService.getBalance(sameShardAccountId).amount());
+        assertEquals(50, balanceService.getBalance(otherShardAccountId).amount());
+        assertEquals(1, transactionService.getTransactions(otherShardAccountId).size());
+    }
+
+    @Test
+    void transfer_AcrossShardsIntoBalanceNearLongMax_RejectsWithoutDebitingTheSource() throws Exception {
+        // Given
+        UUID sourceAccountId = UUID.randomUUID();
+        UUID destinationAccountId = accountOnShard(Math.floorMod(sourceAccountId.hashCode() + 1, 4));
+        postingEngine.submit(Posting.deposit(sourceAccountId, 100)).get(5, TimeUnit.SECONDS);
+        postingEngine.submit(Posting.deposit(destinationAccountId, Long.MAX_VALUE - 50)).get(5, TimeUnit.SECONDS);
+
+        // When
+        CompletableFuture<Transfer> result = postingEngine.transfer(sourceAccountId, destinationAccountId, 51);
+
+        // Then - neither leg is stored
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof BalanceOverflowException);
+        assertEquals(100, balanceService.getBalance(sourceAccountId).amount());
+        assertEquals(Long.MAX_VALUE - 50, balanceService.getBalance(destinationAccountId).amount());
+        assertEquals(1, transactionService.getTransactions(sourceAccountId).size());
+        assertEquals(1, transactionService.getTransactions(destinationAccountId).size());
+    }
+
+    @Test
+    void transfer_AcrossShardsWhileBothShardsPost_KeepsEveryBalanceInStepWithItsHistory() throws Exception {
+        // Given
+        UUID sourceAccountId = UUID.randomUUID();
+        UUID destinationAccountId = accountOnShard(Math.floorMod(sourceAccountId.hashCode() + 1, 4));
+        postingEngine.submit(Posting.deposit(sourceAccountId, 1_000)).get(5, TimeUnit.SECONDS);
+        List<CompletableFuture<Transaction>> deposits = new ArrayList<>();
+
+        // When - deposits keep both shards busy while the transfers pause them
+        for (int i = 0; i < 200; i++) {
+            deposits.add(postingEngine.submit(Posting.deposit(sourceAccountId, 1)));
+            deposits.add(postingEngine.submit(Posting.deposit(destinationAccountId, 1)));
+            postingEngine.transfer(sourceAccountId, destinationAccountId, 2).get(5, TimeUnit.SECONDS);
+        }
+        for (CompletableFuture<Transaction> deposit : deposits) {
+            deposit.get(5, TimeUnit.SECONDS);
+        }
+
+        // Then
+        assertEquals(1_000 + 200 - 400, balanceService.getBalance(sourceAccountId).amount());
+        assertEquals(200 + 400, balanceService.getBalance(destinationAccountId).amount());
+        for (UUID accountId : List.of(sourceAccountId, destinationAccountId)) {
+            List<Transaction> history = transactionService.getTransactions(accountId);
+            assertEquals(balanceService.getBalance(accountId).amount(), history.get(history.size() - 1).balance());
+        }
+    }
+
+    @Test
+    void transfer_ConcurrentlyInBothDirections_ConservesMoneyAfterClose() throws Exception {
+        // Given
+        List<UUID> accountIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            UUID accountId = UUID.randomUUID();
+            accountIds.add(accountId);
+            postingEngine.submit(Posting.deposit(accountId, 1_000)).get(5, TimeUnit.SECONDS);
+        }
+        List<Thread> threads = new ArrayList<>();
+
+        // When - close while transfers are still in flight
+        for (int producer = 0; producer < 4; producer++) {
+            int offset = producer;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    UUID source = accountIds.get((offset + i) % accountIds.size());
+                    UUID destination = accountIds.get((offset + 2 * i + 1) % accountIds.size());
+                    if (!source.equals(destination)) {
+                        postingEngine.transfer(source, destination, 1 + i % 5);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        postingEngine.close();
+
+        // Then - every stored debit has its credit
+        int total = 0;
+        for (UUID accountId : accountIds) {
+            total += balanceService.getBalance(accountId).amount();
+        }
+        assertEquals(8 * 1_000, total);
+    }
+
+    @Test
+    void submit_FromManyProducers_AppliesEachProducersPostingsInOrder() throws Exception {
+        // Given
+        int producers = 8;
+        int postingsPerProducer = 5_000;
+        UUID hotAccountId = UUID.randomUUID();
+        List<Thread> threads = new ArrayList<>();
+        List<List<CompletableFuture<Transaction>>> ownResults = new ArrayList<>();
+
+        // When - every producer posts to a shared hot account and to its own account
+        for (int producer = 0; producer < producers; producer++) {
+            UUID ownAccountId = UUID.randomUUID();
+            List<CompletableFuture<Transaction>> results = new ArrayList<>();
+            ownResults.add(results);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < postingsPerProducer; i++) {
+                    postingEngine.submit(Posting.deposit(hotAccountId, 1));
+                    results.add(postingEngine.submit(Posting.deposit(ownAccountId, 1)));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        postingEngine.close();
+
+        // Then - nothing is lost on the hot account
+        assertEquals(producers * postingsPerProducer, balanceService.getBalance(hotAccountId).amount());
+        assertEquals(producers * postingsPerProducer, transactionService.getTransactions(hotAccountId).size());
+
+        // Then - each producer's own postings were applied in submission order
+        for (List<CompletableFuture<Transaction>> results : ownResults) {
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i + 1, results.get(i).get().balance());
+            }
+        }
+    }
+
+    @Test
+    void submit_WithinBatchWindow_GroupCommitsPostingsInOrder() throws Exception {
+        // Given - a single shard, so every posting lands in the same queue
+        postingEngine.close();
+        postingEngine = new ShardedPostingEngine(transactionService, 1, 64, Duration.ofMillis(50), meterRegistry);
+        UUID accountId = UUID.randomUUID();
+        List<CompletableFuture<Transaction>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 64; i++) {
+            results.add(postingEngine.submit(Posting.deposit(accountId, 1)));
+        }
+        results.add(postingEngine.submit(Posting.withdrawal(accountId, 1_000)));
+        CompletableFuture.allOf(results.subList(0, 64).toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // Then - fewer commits than postings, and balances carried forward inside each batch
+        DistributionSummary batchSize = meterRegistry.get("ledger.engine.batch.size").summary();
+        assertTrue(batchSize.count() < 64, "expected postings to share commits");
+        for (int i = 0; i < 64; i++) {
+            assertEquals(i + 1, results.get(i).get().balance());
+        }
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> results.get(64).get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof InsufficientFundsException);
+        assertEquals(64, balanceService.getBalance(accountId).amount());
+        assertEquals(64, transactionService.getTransactions(accountId).size());
+    }
+
+    @Test
+    void submit_AfterClose_CompletesExceptionally() {
+        // Given
+        postingEngine.close();
+
+        // When
+        CompletableFuture<Transaction> result = postingEngine.submit(Posting.deposit(UUID.randomUUID(), 1));
+
+        // Then
+        assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submit_WhileTheEngineCloses_CompletesEveryFuture() throws Exception {
+        // Given
+        int producers = 4;
+        Queue<CompletableFuture<Transaction>> results = new ConcurrentLinkedQueue<>();
+        CountDownLatch started = new CountDownLatch(producers);
+        List<Thread> threads = new ArrayList<>();
+        for (int producer = 0; producer < producers; producer++) {
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < 2_000; i++) {
+                    results.add(postingEngine.submit(Posting.deposit(UUID.randomUUID(), 1)));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // When
+        started.await();
+        postingEngine.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then - each posting is either applied or rejected, none is left pending
+        for (CompletableFuture<Transaction> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+        }
+    }
+
+    private static UUID accountOnShard(int shard) {
+        UUID accountId;
+        do {
+            accountId = UUID.randomUUID();
+        } while (Math.floorMod(accountId.hashCode(), 4) != shard);
+        return accountId;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.ledger.service;
+
+import com.example.ledger.models.StatementAggregate;
+import com.example.ledger.models.StatementPeriod;
+import com.example.ledger.models.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementAggregatesTest {
+
+    private static final OffsetDateTime START = OffsetDateTime.of(2025, 1, 30, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private UUID accountId;
+    private List<Transaction> stored;
+    private AtomicInteger historyReads;
+    private StatementAggregates statementAggregates;
+
+    @BeforeEach
+    void setUp() {
+        accountId = UUID.randomUUID();
+        stored = new ArrayList<>();
+        historyReads = new AtomicInteger();
+        statementAggregates = new StatementAggregates(id -> {
+            historyReads.incrementAndGet();
+            return List.copyOf(stored);
+        });
+    }
+
+    @Test
+    void get_ByDayAndMonth_SumsDepositsAndWithdrawalsPerBucket() {
+        // Given - Jan 30 and Jan 31, then Feb 1
+        post(deposit(100, 100, START));
+        post(withdrawal(30, 70, START.plusHours(1)));
+        post(deposit(50, 120, START.plusDays(1)));
+        post(withdrawal(120, 0, START.plusDays(2)));
+
+        // When
+        List<StatementAggregate> daily = statementAggregates.get(accountId, StatementPeriod.DAY, null, null);
+        List<StatementAggregate> monthly = statementAggregates.get(accountId, StatementPeriod.MONTH, null, null);
+
+        // Then
+        assertEquals(List.of(
+            new StatementAggregate(LocalDate.of(2025, 1, 30), 100, 1, 30, 1, 70, 100),
+            new StatementAggregate(LocalDate.of(2025, 1, 31), 50, 1, 0, 0, 120, 120),
+            new StatementAggregate(LocalDate.of(2025, 2, 1), 0, 0, 120, 1, 0, 0)), daily);
+        assertEquals(List.of(
+            new StatementAggregate(LocalDate.of(2025, 1, 1), 150, 2, 30, 1, 70, 120),
+            new StatementAggregate(LocalDate.of(2025, 2, 1), 0, 0, 120, 1, 0, 0)), monthly);
+    }
+
+    @Test
+    void get_WithRange_ReturnsBucketsHoldingFromAndStartingBeforeTo() {
+        // Given
+        post(deposit(1, 1, START));
+        post(deposit(2, 3, START.plusDays(1)));
+        post(deposit(3, 6, START.plusDays(2)));
+
+        // When - from falls inside January, to on the first day of February
+        List<StatementAggregate> monthly = statementAggregates.get(
+            accountId, StatementPeriod.MONTH, LocalDate.of(2025, 1, 31), LocalDate.of(2025, 2, 1));
+        List<StatementAggregate> daily = statementAggregates.get(
+            accountId, StatementPeriod.DAY, LocalDate.of(2025, 1, 31), LocalDate.of(2025, 2, 1));
+
+        // Then
+        assertEquals(1, monthly.size());
+        assertEquals(3, monthly.get(0).depositTotal());
+        assertEquals(1, daily.size());
+        assertEquals(LocalDate.of(2025, 1, 31), daily.get(0).start());
+    }
+
+    @Test
+    void get_WithStoredHistory_FoldsItInOnceWithoutCountingNewPostingsTwice() {
+        // Given - two transactions stored before this process, then one posted by it
+        stored.add(deposit(10, 10, START));
+        stored.add(deposit(20, 30, START.plusMinutes(1)));
+        post(deposit(5, 35, START.plusMinutes(2)));
+
+        // When
+        statementAggregates.get(accountId, StatementPeriod.DAY, null, null);
+        post(deposit(1, 36, START.plusMinutes(3)));
+        List<StatementAggregate> daily = statementAggregates.get(accountId, StatementPeriod.DAY, null, null);
+
+        // Then
+        assertEquals(List.of(new StatementAggregate(START.toLocalDate(), 36, 4, 0, 0, 10, 36)), daily);
+        assertEquals(1, historyReads.get());
+    }
+
+    @Test
+    void get_WhileATransactionIsStoredButNotAddedYet_CountsItOnce() {
+        // Given - the history read already holds the second transaction
+        stored.add(deposit(10, 10, START));
+        post(deposit(5, 15, START.plusMinutes(1)));
+        Transaction inFlight = deposit(1, 16, START.plusMinutes(2));
+        stored.add(inFlight);
+
+        // When
+        statementAggregates.get(accountId, StatementPeriod.DAY, null, null);
+        statementAggregates.add(inFlight);
+        List<StatementAggregate> daily = statementAggregates.get(accountId, StatementPeriod.DAY, null, null);
+
+        // Then
+        assertEquals(List.of(new StatementAggregate(START.toLocalDate(), 16, 3, 0, 0, 10, 16)), daily);
+    }
+
+    @Test
+    void get_BeforeAnythingIsAdded_SkipsStoredTransactionsAddedLater() {
+        // Given
+        Transaction inFlight = deposit(7, 7, START);
+        stored.add(inFlight);
+
+        // When
+        statementAggregates.get(accountId, StatementPeriod.MONTH, null, null);
+        statementAggregates.add(inFlight);
+        List<StatementAggregate> monthly = statementAggregates.get(accountId, StatementPeriod.MONTH, null, null);
+
+        // Then
+        assertEquals(List.of(new StatementAggregate(LocalDate.of(2025, 1, 1), 7, 1, 0, 0, 7, 7)), monthly);
+    }
+
+    @Test
+    void get_ForUnknownAccount_ReturnsNoBuckets() {
+        assertTrue(statementAggregates.get(UUID.randomUUID(), StatementPeriod.MONTH, null, null).isEmpty());
+    }
+
+    // adds once stored, like the service
+    private void post(Transaction transaction) {
+        stored.add(transaction);
+        statementAggregates.add(transaction);
+    }
+
+    private Transaction deposit(int amount, int balance, OffsetDateTime createdAt) {
+        return new Transaction(UUID.randomUUID(), accountId, amount, Transaction.TransactionType.DEPOSIT, balance, micros(createdAt));
+    }
+
+    private Transaction withdrawal(int amount, int balance, OffsetDateTime createdAt) {
+        return new Transaction(UUID.randomUUID(), accountId, amount, Transaction.TransactionType.WITHDRAWAL, balance, micros(createdAt));
+    }
+
+    private static long micros(OffsetDateTime time) {
+        return time.toEpochSecond() * 1_000_000 + time.getNano() / 1_000;
+    }
+}
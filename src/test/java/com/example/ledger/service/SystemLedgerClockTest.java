@@ -0,0 +1,76 @@
+package com.example.ledger.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SystemLedgerClockTest {
+
+    private final SystemLedgerClock clock = new SystemLedgerClock();
+
+    @Test
+    void nextMicros_TracksTheWallClock() {
+        // When
+        long before = System.currentTimeMillis() * 1_000;
+        long timestamp = clock.nextMicros();
+        long after = System.currentTimeMillis() * 1_000;
+
+        // Then - allow for the clocks being read a millisecond apart
+        assertTrue(timestamp >= before - 1_000 && timestamp <= after + 1_000);
+    }
+
+    @Test
+    void nextMicros_SeededAheadOfTheWallClock_StaysAheadOfTheSeed() {
+        // Given - an earlier run stamped transactions an hour ahead, then the wall clock stepped back
+        long recovered = System.currentTimeMillis() * 1_000 + 3_600_000_000L;
+        SystemLedgerClock seeded = new SystemLedgerClock(recovered);
+
+        // When
+        long first = seeded.nextMicros();
+        long second = seeded.nextMicros();
+
+        // Then
+        assertEquals(recovered + 1, first);
+        assertEquals(recovered + 2, second);
+    }
+
+    @Test
+    void nextMicros_FromConcurrentCallers_HandsOutStrictlyIncreasingUniqueTimestamps() throws Exception {
+        // Given
+        int callers = 8;
+        int timestampsPerCaller = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        // When
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int caller = 0; caller < callers; caller++) {
+            results.add(executor.submit(() -> {
+                long[] timestamps = new long[timestampsPerCaller];
+                for (int i = 0; i < timestampsPerCaller; i++) {
+                    timestamps[i] = clock.nextMicros();
+                }
+                return timestamps;
+            }));
+        }
+        executor.shutdown();
+
+        // Then
+        Set<Long> seen = new HashSet<>();
+        for (Future<long[]> result : results) {
+            long[] timestamps = result.get();
+            for (int i = 0; i < timestamps.length; i++) {
+                assertTrue(i == 0 || timestamps[i] > timestamps[i - 1]);
+                assertTrue(seen.add(timestamps[i]));
+            }
+        }
+        assertEquals(callers * timestampsPerCaller, seen.size());
+    }
+}
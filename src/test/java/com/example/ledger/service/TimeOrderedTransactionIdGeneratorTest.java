@@ -0,0 +1,58 @@
+package com.example.ledger.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedTransactionIdGeneratorTest {
+
+    private final TimeOrderedTransactionIdGenerator idGenerator = new TimeOrderedTransactionIdGenerator();
+
+    @Test
+    void nextId_ReturnsVersion7IdHoldingTheCreationMillisecond() {
+        // Given
+        long epochMicros = 1_714_551_330_123_456L;
+
+        // When
+        UUID id = idGenerator.nextId(epochMicros);
+
+        // Then
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(1_714_551_330_123L, id.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void nextId_ForIncreasingMicroseconds_ReturnsIdsInTheSameOrder() {
+        // Given - every microsecond of two milliseconds, in order
+        long start = 1_714_551_330_123_000L;
+        List<UUID> ids = new ArrayList<>();
+
+        // When
+        for (long micros = start; micros < start + 2_000; micros++) {
+            ids.add(idGenerator.nextId(micros));
+        }
+
+        // Then
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0, "id " + i + " sorts before its predecessor");
+        }
+    }
+
+    @Test
+    void nextId_ForTheSameMicrosecond_ReturnsDistinctIds() {
+        // When
+        HashSet<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(idGenerator.nextId(1_714_551_330_123_456L));
+        }
+
+        // Then
+        assertEquals(10_000, ids.size());
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.ledger.service;
+
+import com.example.ledger.exceptions.InsufficientFundsException;
+import com.example.ledger.exceptions.InvalidTransferException;
+import com.example.ledger.models.Posting;
+import com.example.ledger.models.PostingOutcome;
+import com.example.ledger.models.Transaction;
+import com.example.ledger.models.Transfer;
+import com.example.ledger.repository.MapBalanceRepository;
+import com.example.ledger.repository.PartitionedTransactionRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests running the real service and repositories from many threads at once.
+ */
+class TransactionServiceConcurrencyTest {
+
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private TransactionService transactionService;
+    private BalanceService balanceService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        balanceService = new BalanceService(new MapBalanceRepository(new ConcurrentHashMap<>()), meterRegistry);
+        var transactionRepository = new PartitionedTransactionRepository(new ConcurrentHashMap<>());
+        transactionService = new TransactionService(
+            transactionRepository,
+            balanceService,
+            new AccountLocks(1024, meterRegistry),
+            new SystemLedgerClock(),
+            new TimeOrderedTransactionIdGenerator(),
+            new StatementAggregates(transactionRepository::getTransactions),
+            meterRegistry
+        );
+    }
+
+    @Test
+    void createDeposit_OnSameAccountFromManyThreads_LosesNoUpdates() throws Exception {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        int depositsPerThread = 5_000;
+
+        // When
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < depositsPerThread; i++) {
+                transactionService.createDeposit(accountId, 1);
+            }
+        });
+
+        // Then
+        int expectedBalance = THREADS * depositsPerThread;
+        assertEquals(expectedBalance, balanceService.getBalance(accountId).amount());
+        assertSequentialHistory(transactionService.getTransactions(accountId), expectedBalance);
+    }
+
+    @Test
+    void createWithdrawal_OnSameAccountFromManyThreads_NeverOverdraws() throws Exception {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        int initialBalance = 10_000;
+        transactionService.createDeposit(accountId, initialBalance);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        // When - every thread tries to withdraw the whole balance one unit at a time
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < initialBalance; i++) {
+                try {
+                    transactionService.createWithdrawal(accountId, 1);
+                    succeeded.incrementAndGet();
+                } catch (InsufficientFundsException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+
+        // Then
+        assertEquals(initialBalance, succeeded.get());
+        assertEquals((THREADS - 1) * initialBalance, rejected.get());
+        assertEquals(0, balanceService.getBalance(accountId).amount());
+        assertSequentialHistory(transactionService.getTransactions(accountId), 0);
+        assertEquals(rejected.get(), meterRegistry.get("ledger.postings.rejected").tag("reason", "insufficient_funds").counter().count());
+        Timer withdrawalLatency =
+            meterRegistry.get("ledger.operation.latency").tag("operation", "withdrawal").timer();
+        assertEquals(THREADS * initialBalance, withdrawalLatency.count());
+    }
+
+    @Test
+    void mixedPostings_OnHotAndColdAccounts_KeepEveryBalanceConsistent() throws Exception {
+        // Given
+        UUID hotAccountId = UUID.randomUUID();
+        List<UUID> coldAccountIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            coldAccountIds.add(UUID.randomUUID());
+        }
+        int iterations = 2_000;
+
+        // When - each thread deposits 2 and withdraws 1 on the hot account and on its own account
+        runConcurrently(THREADS, thread -> {
+            UUID coldAccountId = coldAccountIds.get(thread);
+            for (int i = 0; i < iterations; i++) {
+                transactionService.createDeposit(hotAccountId, 2);
+                transactionService.createWithdrawal(hotAccountId, 1);
+                transactionService.createDeposit(coldAccountId, 2);
+                transactionService.createWithdrawal(coldAccountId, 1);
+            }
+        });
+
+        // Then
+        assertEquals(THREADS * iterations, balanceService.getBalance(hotAccountId).amount());
+        assertSequentialHistory(transactionService.getTransactions(hotAccountId), THREADS * iterations);
+        for (UUID coldAccountId : coldAccountIds) {
+            assertEquals(iterations, balanceService.getBalance(coldAccountId).amount());
+            assertSequentialHistory(transactionService.getTransactions(coldAccountId), iterations);
+        }
+    }
+
+    @Test
+    void postBatch_RejectsOnlyUnfundedPostingsInBatchOrder() {
+        // Given
+        UUID firstAccountId = UUID.randomUUID();
+        UUID secondAccountId = UUID.randomUUID();
+        List<Posting> postings = List.of(
+            Posting.deposit(firstAccountId, 100),
+            Posting.withdrawal(secondAccountId, 10),
+            Posting.withdrawal(firstAccountId, 150),
+            Posting.deposit(secondAccountId, 50),
+            Posting.withdrawal(firstAccountId, 60),
+            Posting.withdrawal(secondAccountId, 10)
+        );
+
+        // When
+        List<PostingOutcome> outcomes = transactionService.postBatch(postings);
+
+        // Then
+        assertEquals(
+            List.of(true, false, false, true, true, true),
+            outcomes.stream().map(PostingOutcome::isPosted).toList());
+        assertInstanceOf(InsufficientFundsException.class, outcomes.get(2).failure());
+        assertEquals(40, outcomes.get(4).transaction().balance());
+        assertEquals(40, balanceService.getBalance(firstAccountId).amount());
+        assertEquals(40, balanceService.getBalance(secondAccountId).amount());
+        assertSequentialHistory(transactionService.getTransactions(firstAccountId), 40);
+        assertSequentialHistory(transactionService.getTransactions(secondAccountId), 40);
+    }
+
+    @Test
+    void postBatch_ConcurrentWithSinglePostings_LosesNoUpdates() throws Exception {
+        // Given
+        UUID accountId = UUID.randomUUID();
+        int iterations = 500;
+        List<Posting> batch = List.of(
+            Posting.deposit(accountId, 2), Posting.withdrawal(accountId, 1), Posting.deposit(accountId, 1));
+
+        // When - half the threads post batches, the other half single deposits
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < iterations; i++) {
+                if (thread % 2 == 0) {
+                    transactionService.postBatch(batch);
+                } else {
+                    transactionService.createDeposit(accountId, 2);
+                }
+            }
+        });
+
+        // Then - every thread adds 2 per iteration either way
+        int expectedBalance = THREADS * iterations * 2;
+        assertEquals(expectedBalance, balanceService.getBalance(accountId).amount());
+        assertSequentialHistory(transactionService.getTransactions(accountId), expectedBalance);
+    }
+
+    @Test
+    void transfer_WhenSourceCannotCoverIt_StoresNeitherLeg() {
+        // Given
+        UUID sourceAccountId = UUID.randomUUID();
+        UUID destinationAccountId = UUID.randomUUID();
+        transactionService.createDeposit(sourceAccountId, 100);
+
+        // When
+        assertThrows(InsufficientFundsException.class,
+            () -> transactionService.transfer(sourceAccountId, destinationAccountId, 101));
+        Transfer transfer = transactionService.transfer(sourceAccountId, destinationAccountId, 100);
+
+        // Then
+        assertEquals(transfer.id(), transfer.debit().transferId());
+        assertEquals(transfer.id(), transfer.credit().transferId());
+        assertEquals(0, transfer.debit().balance());
+        assertEquals(100, transfer.credit().balance());
+        assertEquals(List.of(transfer.credit()), transactionService.getTransactions(destinationAccountId));
+        assertThrows(InvalidTransferException.class,
+            () -> transactionService.transfer(sourceAccountId, sourceAccountId, 1));
+    }
+
+    @Test
+    void transfer_InOppositeDirectionsFromManyThreads_NeverDeadlocksAndConservesMoney() throws Exception {
+        // Given - a few accounts so that every pair is transferred both ways concurrently
+        List<UUID> accountIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            UUID accountId = UUID.randomUUID();
+            accountIds.add(accountId);
+            transactionService.createDeposit(accountId, 1_000);
+        }
+        int transfersPerThread = 5_000;
+
+        // When
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < transfersPerThread; i++) {
+                UUID source = accountIds.get((thread + i) % accountIds.size());
+                UUID destination = accountIds.get((thread + i + 1 + i % 2) % accountIds.size());
+                try {
+                    transactionService.transfer(source, destination, 1 + i % 7);
+                } catch (InsufficientFundsException e) {
+                    // expected now and then, the transfer must then leave no trace
+                }
+            }
+        });
+
+        // Then
+        long total = 0;
+        for (UUID accountId : accountIds) {
+            long balance = balanceService.getBalance(accountId).amount();
+            assertTrue(balance >= 0);
+            assertSequentialHistory(transactionService.getTransactions(accountId), balance);
+            total += balance;
+        }
+        assertEquals(4 * 1_000, total);
+    }
+
+    @Test
+    void createDeposit_OnDistinctAccountsFromGrowingThreadCounts_LosesNoDeposits() throws Exception {
+        int depositsPerThread = 50_000;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            // Given - every thread owns a distinct account
+            List<UUID> accountIds = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                accountIds.add(UUID.randomUUID());
+            }
+
+            // When
+            runConcurrently(threads, thread -> {
+                UUID accountId = accountIds.get(thread);
+                for (int i = 0; i < depositsPerThread; i++) {
+                    transactionService.createDeposit(accountId, 1);
+                }
+            });
+
+            // Then - throughput per thread count is measured by PostingBenchmark
+            for (UUID accountId : accountIds) {
+                assertEquals(depositsPerThread, balanceService.getBalance(accountId).amount());
+            }
+        }
+    }
+
+    private static void assertSequentialHistory(List<Transaction> history, long expectedFinalBalance) {
+        long balance = 0;
+        for (Transaction transaction : history) {
+            balance += transaction.type() == Transaction.TransactionType.DEPOSIT
+                ? transaction.amount()
+                : -transaction.amount();
+            assertEquals(balance, transaction.balance(), "balance after transaction " + transaction.id());
+        }
+        assertEquals(expectedFinalBalance, balance);
+    }
+
+    private static void runConcurrently(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> failures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            int threadIndex = thread;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    task.run(threadIndex);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS), "stress run timed out");
+        assertTrue(failures.isEmpty(), () -> "worker failed: " + failures);
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int threadIndex) throws Exception;
+    }
+}
@@ -1,23 +1,27 @@
 package com.example.ledger.service;
 
+import com.example.ledger.exceptions.BalanceOverflowException;
 import com.example.ledger.exceptions.InsufficientFundsException;
 import com.example.ledger.models.Balance;
+import com.example.ledger.models.Posting;
+import com.example.ledger.models.PostingOutcome;
 import com.example.ledger.models.Transaction;
 import com.example.ledger.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -30,18 +34,23 @@ class TransactionServiceTest {
     @Mock
     private BalanceService balanceService;
 
-    @InjectMocks
     private TransactionService transactionService;
 
     private UUID testAccountId;
     private Balance testBalance;
     private Transaction testTransaction;
-    private OffsetDateTime testTime;
+    private long testTime;
 
     @BeforeEach
     void setUp() {
+        testTime = System.currentTimeMillis() * 1_000;
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LedgerClock clock = () -> testTime;
+        transactionService = new TransactionService(
+            transactionRepository, balanceService, new AccountLocks(16, meterRegistry), clock,
+            new TimeOrderedTransactionIdGenerator(),
+            new StatementAggregates(transactionRepository::getTransactions), meterRegistry);
         testAccountId = UUID.randomUUID();
-        testTime = OffsetDateTime.now();
         testBalance = new Balance(1000, testTime);
         testTransaction = new Transaction(
             UUID.randomUUID(),
@@ -56,7 +65,7 @@ class TransactionServiceTest {
     @Test
     void createDeposit_WithValidAmount_CreatesDepositAndUpdatesBalance() {
         // Given
-        Integer depositAmount = 500;
+        long depositAmount = 500;
         when(balanceService.getBalance(testAccountId)).thenReturn(testBalance);
         when(transactionRepository.addTransaction(any(Transaction.class))).thenReturn(testTransaction);
 
@@ -69,7 +78,7 @@ class TransactionServiceTest {
         assertEquals(depositAmount, result.amount());
         assertEquals(Transaction.TransactionType.DEPOSIT, result.type());
         assertNotNull(result.id());
-        assertNotNull(result.createdAt());
+        assertEquals(testTime, result.createdAt());
 
         verify(balanceService).getBalance(testAccountId);
         verify(balanceService).saveBalance(eq(testAccountId), any(Balance.class));
@@ -104,7 +113,7 @@ class TransactionServiceTest {
         assertEquals(withdrawalTransaction.amount(), result.amount());
         assertEquals(Transaction.TransactionType.WITHDRAWAL, result.type());
         assertNotNull(result.id());
-        assertNotNull(result.createdAt());
+        assertEquals(testTime, result.createdAt());
 
         verify(balanceService).getBalance(testAccountId);
         verify(balanceService).saveBalance(eq(testAccountId), any(Balance.class));
@@ -119,7 +128,7 @@ class TransactionServiceTest {
     @Test
     void createWithdrawal_WithInsufficientFunds_ThrowsIllegalArgumentException() {
         // Given
-        Integer withdrawalAmount = 1500; // More than the balance of 1000
+        long withdrawalAmount = 1500; // More than the balance of 1000
         when(balanceService.getBalance(testAccountId)).thenReturn(testBalance);
 
         // When & Then
@@ -134,6 +143,66 @@ class TransactionServiceTest {
         verify(transactionRepository, never()).addTransaction(any(Transaction.class));
     }
 
+    @Test
+    void createDeposit_WhenBalanceWouldOverflow_ThrowsBalanceOverflowException() {
+        // Given
+        when(balanceService.getBalance(testAccountId)).thenReturn(new Balance(Long.MAX_VALUE - 100, testTime));
+
+        // When & Then
+        assertThrows(
+            BalanceOverflowException.class,
+            () -> transactionService.createDeposit(testAccountId, 101)
+        );
+
+        verify(balanceService, never()).saveBalance(any(UUID.class), any(Balance.class));
+        verify(transactionRepository, never()).addTransaction(any(Transaction.class));
+    }
+
+    @Test
+    void createDeposit_WhenStoringTheTransactionFails_LeavesTheBalanceUnchanged() {
+        // Given
+        when(balanceService.getBalance(testAccountId)).thenReturn(testBalance);
+        when(transactionRepository.addTransaction(any(Transaction.class)))
+            .thenThrow(new IllegalStateException("journal unavailable"));
+
+        // When & Then
+        assertThrows(
+            IllegalStateException.class,
+            () -> transactionService.createDeposit(testAccountId, 500)
+        );
+
+        verify(balanceService, never()).saveBalance(any(UUID.class), any(Balance.class));
+    }
+
+    @Test
+    void postBatch_WhenOneAccountFailsToStore_RejectsItsPostingsAndKeepsTheOthers() {
+        // Given
+        UUID failingAccountId = UUID.randomUUID();
+        when(balanceService.getBalance(any(UUID.class))).thenReturn(new Balance(0, testTime));
+        IllegalStateException failure = new IllegalStateException("journal unavailable");
+        doAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            if (transactions.get(0).accountId().equals(failingAccountId)) {
+                throw failure;
+            }
+            return null;
+        }).when(transactionRepository).addTransactions(anyList());
+        List<Posting> postings = List.of(
+            Posting.deposit(testAccountId, 100),
+            Posting.deposit(failingAccountId, 50),
+            Posting.deposit(failingAccountId, 25));
+
+        // When
+        List<PostingOutcome> outcomes = transactionService.postBatch(postings);
+
+        // Then
+        assertTrue(outcomes.get(0).isPosted());
+        assertSame(failure, outcomes.get(1).failure());
+        assertSame(failure, outcomes.get(2).failure());
+        verify(balanceService).saveBalances(Map.of(testAccountId, new Balance(100, testTime)));
+        verify(balanceService, never()).saveBalances(argThat(balances -> balances.containsKey(failingAccountId)));
+    }
+
     @Test
     void getTransactions_ReturnsTransactionsFromRepository() {
         // Given
@@ -151,7 +220,7 @@ class TransactionServiceTest {
             200,
             Transaction.TransactionType.WITHDRAWAL,
             300,
-            testTime.plusMinutes(10)
+            testTime + 600_000_000L
         );
         List<Transaction> expectedTransactions = Arrays.asList(transaction1, transaction2);
         when(transactionRepository.getTransactions(testAccountId)).thenReturn(expectedTransactions);